@@ -0,0 +1,49 @@
+package me.julionxn.nobaitc.benchmarks;
+
+import me.julionxn.nobaitc.data.alias.AliasStructure;
+import me.julionxn.nobaitc.data.alias.AliasStructureGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generación completa de la estructura de alias de una fracción.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AliasBenchmark {
+
+    @Param({"4x5", "2x3x5", "2x3x5x7", "2x3x5x7x11", "3x4x5x7x11x13",
+            "2x3x5x7x11x13x17", "2x3x5x7x11x13x17x19", "2x3x5x7x11x13x17x19x23"})
+    public String design;
+
+    @Param({"16", "64", "256"})
+    public int fractionSize;
+
+    private double[][] matrix;
+    private PrintStream originalOut;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        matrix = new DesignFixture(design, fractionSize).matrix();
+        // El generador imprime sus pasos intermedios; no se mide la consola
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    @Benchmark
+    public AliasStructure generate() {
+        return new AliasStructureGenerator(matrix).generate();
+    }
+}
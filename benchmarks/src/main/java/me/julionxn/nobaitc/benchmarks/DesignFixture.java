@@ -0,0 +1,58 @@
+package me.julionxn.nobaitc.benchmarks;
+
+import me.julionxn.nobaitc.data.nonbpa.FractionView;
+import me.julionxn.nobaitc.data.nonbpa.NONBPAGeneratorService;
+import me.julionxn.nobaitc.data.nonbpa.VIFSMatrix;
+
+import java.util.Arrays;
+
+/**
+ * Prepara el diseño y la fracción que usan los benchmarks.
+ */
+final class DesignFixture {
+
+    final int[] design;
+    final NONBPAGeneratorService.DesignParameters parameters;
+    final int fractionSize;
+    final long start;
+
+    /**
+     * @param design niveles separados por "x", por ejemplo 2x3x5x7
+     * @param requestedSize tamaño de fracción deseado; se ajusta a [SF min, TR/2]
+     */
+    DesignFixture(String design, int requestedSize) {
+        this.design = Arrays.stream(design.split("x")).mapToInt(s -> Integer.parseInt(s.trim())).toArray();
+        NONBPAGeneratorService service = new NONBPAGeneratorService();
+        if (!service.validateDesign(this.design)) {
+            throw new IllegalArgumentException("Diseño no válido para NONBPA: " + design);
+        }
+        this.parameters = service.calculateParameters(this.design);
+        int upper = (int) Math.max(parameters.sfMin(), Math.min(parameters.tr() / 2, Integer.MAX_VALUE));
+        this.fractionSize = Math.max(parameters.sfMin(), Math.min(requestedSize, upper));
+        this.start = firstInvertibleStart();
+    }
+
+    /**
+     * Busca un inicio cuya matriz de correlaciones sea invertible, para que los VIFs no fallen
+     */
+    private long firstInvertibleStart() {
+        VIFSMatrix vifs = new VIFSMatrix();
+        for (long s = 1; s <= parameters.tr(); s++) {
+            try {
+                vifs.calculate(FractionView.of(design, s, fractionSize));
+                return s;
+            } catch (RuntimeException ignored) {
+                // Singular, probar el siguiente
+            }
+        }
+        throw new IllegalStateException("Ninguna fracción de tamaño " + fractionSize + " es invertible");
+    }
+
+    FractionView view() {
+        return FractionView.of(design, start, fractionSize);
+    }
+
+    double[][] matrix() {
+        return view().toMatrix();
+    }
+}
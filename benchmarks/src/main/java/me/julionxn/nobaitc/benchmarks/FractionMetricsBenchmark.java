@@ -0,0 +1,102 @@
+package me.julionxn.nobaitc.benchmarks;
+
+import me.julionxn.nobaitc.data.nonbpa.BalancedGBMMatrix;
+import me.julionxn.nobaitc.data.nonbpa.FractionView;
+import me.julionxn.nobaitc.data.nonbpa.LevelMatrix;
+import me.julionxn.nobaitc.data.nonbpa.OrthogonalJ2Matrix;
+import me.julionxn.nobaitc.data.nonbpa.VIFSMatrix;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de evaluar una fracción con cada calculador y cada representación.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FractionMetricsBenchmark {
+
+    @Param({"4x5", "2x3x5", "2x3x5x7", "2x3x5x7x11", "3x4x5x7x11x13",
+            "2x3x5x7x11x13x17", "2x3x5x7x11x13x17x19", "2x3x5x7x11x13x17x19x23"})
+    public String design;
+
+    /**
+     * Tamaño pedido; se ajusta a [SF min, TR/2] para cada diseño
+     */
+    @Param({"16", "64", "256"})
+    public int fractionSize;
+
+    private final BalancedGBMMatrix gbm = new BalancedGBMMatrix();
+    private final OrthogonalJ2Matrix j2 = new OrthogonalJ2Matrix();
+    private final VIFSMatrix vifs = new VIFSMatrix();
+
+    private int[] levels;
+    private double[][] matrix;
+    private FractionView view;
+    private LevelMatrix compact;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        DesignFixture fixture = new DesignFixture(design, fractionSize);
+        levels = fixture.design;
+        matrix = fixture.matrix();
+        view = fixture.view();
+        compact = LevelMatrix.of(view);
+    }
+
+    @Benchmark
+    public void fractionMatrix(Blackhole bh) {
+        bh.consume(gbm.calculateGBM(matrix, levels));
+        bh.consume(j2.calculateJ2(matrix));
+        bh.consume(vifs.calculate(matrix));
+    }
+
+    @Benchmark
+    public void fractionView(Blackhole bh) {
+        bh.consume(gbm.calculateGBM(view));
+        bh.consume(j2.calculateJ2(view));
+        bh.consume(vifs.calculate(view));
+    }
+
+    @Benchmark
+    public void fractionLevels(Blackhole bh) {
+        bh.consume(gbm.calculateGBM(compact, levels));
+        bh.consume(j2.calculateJ2(compact));
+        bh.consume(vifs.calculate(compact));
+    }
+
+    @Benchmark
+    public double gbmMatrix() {
+        return gbm.calculateGBM(matrix, levels);
+    }
+
+    @Benchmark
+    public double gbmLevels() {
+        return gbm.calculateGBM(compact, levels);
+    }
+
+    @Benchmark
+    public double j2Matrix() {
+        return j2.calculateJ2(matrix);
+    }
+
+    @Benchmark
+    public double j2Levels() {
+        return j2.calculateJ2(compact);
+    }
+
+    @Benchmark
+    public double[] vifMatrix() {
+        return vifs.calculate(matrix);
+    }
+
+    @Benchmark
+    public double[] vifLevels() {
+        return vifs.calculate(compact);
+    }
+}
@@ -0,0 +1,62 @@
+package me.julionxn.nobaitc.benchmarks;
+
+import me.julionxn.nobaitc.data.nonbpa.FractionMetric;
+import me.julionxn.nobaitc.data.nonbpa.FractionResult;
+import me.julionxn.nobaitc.data.nonbpa.NONBPAGeneratorService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generación de fracciones de punta a punta a través del servicio.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeneratorBenchmark {
+
+    @Param({"2x3x5x7", "3x4x5x7x11x13"})
+    public String design;
+
+    @Param({"16", "64"})
+    public int fractionSize;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    private static final int FRACTIONS = 1024;
+
+    private NONBPAGeneratorService service;
+    private int[] levels;
+    private int size;
+    private List<Long> starts;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        DesignFixture fixture = new DesignFixture(design, fractionSize);
+        levels = fixture.design;
+        size = fixture.fractionSize;
+        service = parallel ? NONBPAGeneratorService.parallel() : new NONBPAGeneratorService();
+        starts = new ArrayList<>(FRACTIONS);
+        long tr = fixture.parameters.tr();
+        long count = Math.min(FRACTIONS, tr);
+        for (long i = 0; i < count; i++) {
+            starts.add(1 + i * tr / count);
+        }
+    }
+
+    @Benchmark
+    public List<FractionResult> customFractions() {
+        return service.generateCustomFractions(levels, size, starts);
+    }
+
+    @Benchmark
+    public List<FractionResult> scanTop10ByMaxVif() {
+        return service.scanTopFractions(levels, size, 10, FractionMetric.MAX_VIF);
+    }
+}
@@ -0,0 +1,75 @@
+package me.julionxn.nobaitc.benchmarks;
+
+import me.julionxn.nobaitc.data.MatlabFunctions;
+import me.julionxn.nobaitc.data.Matrix;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * corrcoef sobre una fracción e inv sobre su matriz de correlaciones,
+ * con los adaptadores jagged y directamente sobre {@link Matrix}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatlabFunctionsBenchmark {
+
+    @Param({"4x5", "2x3x5", "2x3x5x7", "2x3x5x7x11", "3x4x5x7x11x13",
+            "2x3x5x7x11x13x17", "2x3x5x7x11x13x17x19", "2x3x5x7x11x13x17x19x23"})
+    public String design;
+
+    @Param({"16", "64", "256"})
+    public int fractionSize;
+
+    private double[][] matrix;
+    private double[][] correlation;
+    private Matrix flat;
+    private Matrix flatCorrelation;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        matrix = new DesignFixture(design, fractionSize).matrix();
+        correlation = MatlabFunctions.corrcoef(matrix);
+        flat = Matrix.columnMajorOf(matrix);
+        flatCorrelation = Matrix.of(correlation);
+    }
+
+    @Benchmark
+    public double[][] corrcoef() {
+        return MatlabFunctions.corrcoef(matrix);
+    }
+
+    @Benchmark
+    public double[][] inv() {
+        return MatlabFunctions.inv(correlation);
+    }
+
+    @Benchmark
+    public double[][] transpose() {
+        return MatlabFunctions.transpose(matrix);
+    }
+
+    @Benchmark
+    public Matrix corrcoefFlat() {
+        return flat.corrcoef();
+    }
+
+    @Benchmark
+    public Matrix invFlat() {
+        return flatCorrelation.inv();
+    }
+
+    @Benchmark
+    public Matrix transposeFlat() {
+        return flat.transpose();
+    }
+
+    @Benchmark
+    public Matrix gramFlat() {
+        return flat.transposeView().multiply(flat);
+    }
+}
@@ -0,0 +1,106 @@
+package me.julionxn.nobaitc.benchmarks;
+
+import me.julionxn.nobaitc.data.Matrix;
+import me.julionxn.nobaitc.data.simd.Kernels;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kernels escalares contra SIMD (Vector API).
+ * Cada fork agrega el módulo jdk.incubator.vector; el ancho usado depende del host
+ * (simd-256 con AVX2, simd-512 con AVX-512) y se ve en el nombre que imprime la implementación.
+ * Para comparar sólo AVX2 en un host AVX-512: -jvmArgsAppend -XX:UseAVX=2
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class SimdBenchmark {
+
+    @Param({"scalar", "simd"})
+    public String kernel;
+
+    /**
+     * Filas de la columna; para countEqual es el número de factores de la fila
+     */
+    @Param({"9", "64", "256", "4096"})
+    public int length;
+
+    private Kernels kernels;
+    private double[] x;
+    private double[] y;
+    private double[] out;
+    private double xMean;
+    private double yMean;
+    private Matrix columns;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        // La implementación activa se elige al cargar Kernels: la propiedad debe fijarse antes
+        System.setProperty("nobaitc.simd", String.valueOf(kernel.equals("simd")));
+        kernels = kernel.equals("simd")
+                ? Kernels.simd().orElseThrow(() -> new IllegalStateException("Vector API no disponible"))
+                : Kernels.scalar();
+        if (!Kernels.active().name().equals(kernels.name())) {
+            throw new IllegalStateException("Kernels.active() ya estaba inicializado con " + Kernels.active().name());
+        }
+        System.out.println("\nkernels: " + kernels.name());
+
+        Random random = new Random(42);
+        x = new double[length];
+        y = new double[length];
+        out = new double[length];
+        for (int i = 0; i < length; i++) {
+            x[i] = 1 + random.nextInt(7);
+            y[i] = 1 + random.nextInt(7);
+        }
+        xMean = kernels.sum(x, 0, length) / length;
+        yMean = kernels.sum(y, 0, length) / length;
+
+        double[][] matrix = new double[length][9];
+        for (double[] row : matrix) {
+            for (int j = 0; j < row.length; j++) {
+                row[j] = 1 + random.nextInt(j + 2);
+            }
+        }
+        columns = Matrix.columnMajorOf(matrix);
+    }
+
+    @Benchmark
+    public double sum() {
+        return kernels.sum(x, 0, length);
+    }
+
+    @Benchmark
+    public double sumSquaredDeviations() {
+        return kernels.sumSquaredDeviations(x, 0, length, xMean);
+    }
+
+    @Benchmark
+    public double centeredDot() {
+        return kernels.centeredDot(x, 0, y, 0, length, xMean, yMean);
+    }
+
+    @Benchmark
+    public int countEqual() {
+        return kernels.countEqual(x, y, length);
+    }
+
+    @Benchmark
+    public double[] multiply() {
+        kernels.multiply(x, y, out, length);
+        return out;
+    }
+
+    /**
+     * corrcoef completo de 9 columnas con length filas, usando Kernels.active()
+     */
+    @Benchmark
+    public Matrix corrcoef() {
+        return columns.corrcoef();
+    }
+}
@@ -0,0 +1,369 @@
+package me.julionxn.nobaitc.cli;
+
+import me.julionxn.nobaitc.data.SeededSampler;
+import me.julionxn.nobaitc.data.alias.AliasStructureGenerator;
+import me.julionxn.nobaitc.data.nonbpa.FractionMetric;
+import me.julionxn.nobaitc.data.nonbpa.FractionScore;
+import me.julionxn.nobaitc.data.nonbpa.FractionStore;
+import me.julionxn.nobaitc.data.nonbpa.FractionStoreWriter;
+import me.julionxn.nobaitc.data.nonbpa.FractionThresholds;
+import me.julionxn.nobaitc.data.nonbpa.FractionView;
+import me.julionxn.nobaitc.data.nonbpa.NONBPAGeneratorService;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/**
+ * Punto de entrada sin interfaz gráfica, para correr generaciones y análisis de alias en servidores.
+ * Sólo usa clases que no dependen de JavaFX, así que se ejecuta desde el classpath sin sus módulos:
+ * <pre>
+ * java -jar NOBAITC-1.0-SNAPSHOT-headless.jar random --design 2x3x5x7 --size 16 --count 1000 --seed 42
+ * </pre>
+ * Los resultados se escriben conforme se producen, una fracción por línea separada por tabuladores.
+ * <p>
+ * module-info sigue requiriendo javafx.*, así que como módulo (--module) la aplicación necesita JavaFX;
+ * sin JavaFX el launcher sólo corre desde el classpath, con el jar de clasificador headless.
+ */
+public final class HeadlessLauncher {
+
+    /**
+     * Líneas que se escriben antes de vaciar el búfer de salida
+     */
+    private static final int FLUSH_LINES = 256;
+
+    private static final String USAGE = """
+            Uso: java -jar NOBAITC-headless.jar <comando> [opciones]
+
+            Comandos:
+              random  --design 2x3x5x7 --size 16 --count 1000 [--seed S]
+              custom  --design 2x3x5x7 --size 16 --starts 1,5,9
+              scan    --design 2x3x5x7 --size 16 --top 10 [--metric GBM|J2|MAX_VIF]
+                      [--max-gbm X] [--max-j2 X] [--max-vif X]
+              alias   --design 2x3x5x7 --size 16 --start 5
+              alias   --file fraccion.txt   (una fila por línea, niveles separados por espacios o comas)
+              store   --file resultados.nbpa [--top 10 --metric GBM|J2|MAX_VIF] [--max-gbm X] [--max-j2 X] [--max-vif X]
+                      (sin --top lista todas las fracciones guardadas)
+
+            Opciones:
+              --threads N   hilos de evaluación; 1 evalúa en el hilo actual (por defecto, todos los procesadores)
+              --output F    archivo de salida (por defecto, la salida estándar)
+              --levels      agrega los niveles de cada fracción, filas separadas por ';'
+              --store F     random, custom y scan guardan las fracciones en el almacén columnar F en lugar de
+                            escribirlas como texto; con --levels también se guardan sus niveles
+            """;
+
+    private final Map<String, String> options;
+    private final PrintStream out;
+    private int pendingLines;
+    // Pool de evaluación, creado por service() y cerrado al terminar el comando
+    private ForkJoinPool pool;
+
+    private HeadlessLauncher(Map<String, String> options, PrintStream out) {
+        this.options = options;
+        this.out = out;
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 0 || args[0].equals("--help") || args[0].equals("-h")) {
+            System.out.print(USAGE);
+            return;
+        }
+        try {
+            Map<String, String> options = parseOptions(args);
+            String output = options.get("output");
+            try (PrintStream out = output == null
+                    ? new PrintStream(new BufferedOutputStream(System.out), false, StandardCharsets.UTF_8)
+                    : new PrintStream(new BufferedOutputStream(new FileOutputStream(output)), false, StandardCharsets.UTF_8)) {
+                HeadlessLauncher launcher = new HeadlessLauncher(options, out);
+                try {
+                    launcher.run(args[0]);
+                } finally {
+                    launcher.shutdown();
+                }
+            }
+        } catch (IllegalArgumentException | IOException | UncheckedIOException e) {
+            System.err.println("Error: " + (e instanceof UncheckedIOException u ? u.getCause().getMessage() : e.getMessage()));
+            System.err.print(USAGE);
+            System.exit(2);
+        } catch (RuntimeException e) {
+            // Una falla durante la corrida, no un error de uso: sin la ayuda y con otro código de salida
+            System.err.println("Error: " + (e.getMessage() != null ? e.getMessage() : e.toString()));
+            System.exit(1);
+        }
+    }
+
+    private void run(String command) throws IOException {
+        switch (command) {
+            case "random" -> random();
+            case "custom" -> custom();
+            case "scan" -> scan();
+            case "alias" -> alias();
+            case "store" -> store();
+            default -> throw new IllegalArgumentException("Comando desconocido: " + command);
+        }
+        out.flush();
+    }
+
+    // ==================== Comandos ====================
+
+    private void random() throws IOException {
+        int[] design = parseDesign(required("design"));
+        int size = parseInt("size");
+        int count = parseInt("count");
+        long seed = options.containsKey("seed") ? parseLong("seed") : SeededSampler.unseeded().seed();
+
+        System.err.println("Semilla: " + seed);
+        emit(design, size, sink -> service().scoreRandomFractions(design, size, count, seed, sink));
+    }
+
+    private void custom() throws IOException {
+        int[] design = parseDesign(required("design"));
+        int size = parseInt("size");
+        List<Long> starts = new ArrayList<>();
+        for (String value : required("starts").replaceAll("[\\[\\]\\s]", "").split(",")) {
+            if (!value.isEmpty()) {
+                starts.add(Long.parseLong(value));
+            }
+        }
+
+        emit(design, size, sink -> service().scoreCustomFractions(design, size, starts, sink));
+    }
+
+    private void scan() throws IOException {
+        int[] design = parseDesign(required("design"));
+        int size = parseInt("size");
+        int top = parseInt("top");
+        FractionMetric metric = parseMetric();
+        FractionThresholds thresholds = parseThresholds();
+
+        emit(design, size, sink -> service().scanTopScores(design, size, top, metric, thresholds).forEach(sink));
+    }
+
+    private void alias() throws IOException {
+        double[][] fraction;
+        if (options.containsKey("file")) {
+            fraction = readFraction(Path.of(options.get("file")));
+        } else {
+            int[] design = parseDesign(required("design"));
+            long start = parseLong("start");
+            long tr = new NONBPAGeneratorService().calculateParameters(design).tr();
+            if (start < 1 || start > tr) {
+                throw new IllegalArgumentException("--start debe estar entre 1 y " + tr);
+            }
+            fraction = FractionView.of(design, start, parseInt("size")).toMatrix();
+        }
+        new AliasStructureGenerator(fraction).generate().print(out);
+    }
+
+    /**
+     * Consulta un almacén escrito con --store sin cargarlo en memoria
+     */
+    private void store() throws IOException {
+        try (FractionStore store = FractionStore.open(Path.of(required("file")))) {
+            int[] design = store.design();
+            int size = store.fractionSize();
+            System.err.println("Diseño " + Arrays.toString(design) + ", tamaño " + size
+                    + ", " + store.size() + " fracciones");
+            printHeader();
+            if (options.containsKey("top")) {
+                FractionMetric metric = parseMetric();
+                for (FractionScore score : store.top(parseInt("top"), metric, parseThresholds())) {
+                    printScore(design, size, score);
+                }
+            } else {
+                for (long i = 0; i < store.size(); i++) {
+                    printScore(design, size, store.score(i));
+                }
+            }
+        }
+    }
+
+    // ==================== Salida ====================
+
+    private NONBPAGeneratorService service() {
+        int threads = options.containsKey("threads")
+                ? parseInt("threads")
+                : Runtime.getRuntime().availableProcessors();
+        if (threads <= 0) {
+            throw new IllegalArgumentException("El número de hilos debe ser mayor a 0");
+        }
+        if (threads > 1 && pool == null) {
+            pool = new ForkJoinPool(threads);
+        }
+        return new NONBPAGeneratorService(threads == 1 ? null : pool);
+    }
+
+    private void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Entrega las fracciones producidas por un comando al almacén de --store, o las imprime como texto
+     */
+    private void emit(int[] design, int size, Consumer<Consumer<FractionScore>> producer) throws IOException {
+        String store = options.get("store");
+        if (store == null) {
+            printHeader();
+            producer.accept(score -> printScore(design, size, score));
+            return;
+        }
+        try (FractionStoreWriter writer = new FractionStoreWriter(Path.of(store), design, size,
+                options.containsKey("levels"))) {
+            producer.accept(score -> {
+                try {
+                    writer.write(score);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            System.err.println(writer.count() + " fracciones guardadas en " + store);
+        }
+    }
+
+    private void printHeader() {
+        out.print("inicio\tgbm\tj2\tmax_vif\tvifs");
+        out.println(options.containsKey("levels") ? "\tniveles" : "");
+    }
+
+    private void printScore(int[] design, int size, FractionScore score) {
+        StringBuilder line = new StringBuilder();
+        line.append(score.start()).append('\t')
+                .append(score.gbm()).append('\t')
+                .append(score.j2()).append('\t')
+                .append(score.maxVif()).append('\t');
+        double[] vifs = score.vifs();
+        for (int k = 0; k < vifs.length; k++) {
+            if (k > 0) line.append(',');
+            line.append(vifs[k]);
+        }
+        if (options.containsKey("levels")) {
+            line.append('\t');
+            FractionView view = FractionView.of(design, score.start(), size);
+            for (int r = 0; r < size; r++) {
+                if (r > 0) line.append(';');
+                for (int f = 0; f < design.length; f++) {
+                    if (f > 0) line.append(' ');
+                    line.append(view.level(r, f));
+                }
+            }
+        }
+        out.println(line);
+        // Vaciar por bloques: las líneas salen conforme se producen sin una escritura por fracción
+        if (++pendingLines == FLUSH_LINES) {
+            out.flush();
+            pendingLines = 0;
+        }
+    }
+
+    // ==================== Entrada ====================
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 1; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Opción no válida: " + arg);
+            }
+            String name = arg.substring(2);
+            if (name.equals("levels")) {
+                options.put(name, "true");
+            } else if (i + 1 < args.length) {
+                options.put(name, args[++i]);
+            } else {
+                throw new IllegalArgumentException("Falta el valor de " + arg);
+            }
+        }
+        return options;
+    }
+
+    private String required(String name) {
+        String value = options.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Falta la opción --" + name);
+        }
+        return value;
+    }
+
+    private int parseInt(String name) {
+        try {
+            return Integer.parseInt(required(name));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--" + name + " debe ser un entero");
+        }
+    }
+
+    private long parseLong(String name) {
+        try {
+            return Long.parseLong(required(name));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--" + name + " debe ser un entero");
+        }
+    }
+
+    private double parseDouble(String name, double defaultValue) {
+        if (!options.containsKey(name)) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(options.get(name));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--" + name + " debe ser un número");
+        }
+    }
+
+    private FractionMetric parseMetric() {
+        String metric = options.getOrDefault("metric", "MAX_VIF").toUpperCase(Locale.ROOT);
+        try {
+            return FractionMetric.valueOf(metric);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Métrica desconocida: " + metric + " (GBM, J2 o MAX_VIF)");
+        }
+    }
+
+    private FractionThresholds parseThresholds() {
+        return new FractionThresholds(
+                parseDouble("max-gbm", Double.POSITIVE_INFINITY),
+                parseDouble("max-j2", Double.POSITIVE_INFINITY),
+                parseDouble("max-vif", Double.POSITIVE_INFINITY));
+    }
+
+    /**
+     * @param design niveles separados por "x", por ejemplo 2x3x5x7
+     */
+    private static int[] parseDesign(String design) {
+        try {
+            return Arrays.stream(design.split("x")).mapToInt(s -> Integer.parseInt(s.trim())).toArray();
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Diseño no válido: " + design + " (ejemplo: 2x3x5x7)");
+        }
+    }
+
+    private static double[][] readFraction(Path file) throws IOException {
+        List<double[]> rows = new ArrayList<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty()) continue;
+            rows.add(Arrays.stream(trimmed.split("[\\s,;]+")).mapToDouble(Double::parseDouble).toArray());
+        }
+        if (rows.isEmpty()) {
+            throw new IllegalArgumentException("El archivo " + file + " no contiene filas");
+        }
+        return rows.toArray(new double[0][]);
+    }
+}
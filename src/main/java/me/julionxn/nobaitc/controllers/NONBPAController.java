@@ -1,7 +1,10 @@
 package me.julionxn.nobaitc.controllers;
 
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
@@ -14,15 +17,22 @@ import javafx.scene.layout.VBox;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 import me.julionxn.nobaitc.MainApplication;
+import me.julionxn.nobaitc.data.SeededSampler;
 import me.julionxn.nobaitc.data.nonbpa.NONBPAGeneratorService;
 import me.julionxn.nobaitc.data.nonbpa.FractionResult;
+import me.julionxn.nobaitc.data.nonbpa.FractionScore;
+import me.julionxn.nobaitc.data.nonbpa.ParetoArchive;
 import me.julionxn.nobaitc.util.ClipboardHelper;
 
 import java.io.IOException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
 import java.util.stream.Collectors;
 
 /**
@@ -38,11 +48,16 @@ public class NONBPAController implements Initializable {
     @FXML private Button removeFactorButton;
     @FXML private TextField fractionSizeField;
     @FXML private TextField numberOfFractionsField;
+    @FXML private TextField seedField;
     @FXML private RadioButton randomFractionsRadio;
     @FXML private RadioButton customFractionsRadio;
     @FXML private TextField customFractionsField;
+    @FXML private RadioButton paretoFractionsRadio;
     @FXML private Button generateButton;
+    @FXML private Button cancelButton;
     @FXML private Button clearButton;
+    @FXML private ProgressBar progressBar;
+    @FXML private Label progressLabel;
 
     @FXML private Label trLabel;
     @FXML private Label factorsCountLabel;
@@ -50,6 +65,7 @@ public class NONBPAController implements Initializable {
     @FXML private Label glLabel;
     @FXML private Label sfMinLabel;
 
+    @FXML private CheckBox paretoFrontCheck;
     @FXML private TableView<FractionResult> resultsTable;
     @FXML private TableColumn<FractionResult, Integer> fractionNumberColumn;
     @FXML private TableColumn<FractionResult, String> fractionDataColumn;
@@ -62,6 +78,13 @@ public class NONBPAController implements Initializable {
 
     private final NONBPAGeneratorService generatorService;
     private final ObservableList<FractionResult> fractionResults;
+    private final FilteredList<FractionResult> visibleResults;
+    // Frente de Pareto de las fracciones de la generación actual
+    private ParetoArchive paretoArchive;
+    // El filtro de la tabla se reconstruye como mucho cada PARETO_REFRESH_NANOS mientras llegan lotes
+    private boolean paretoFilterStale;
+    private long lastParetoRefreshNanos;
+    private GenerationTask generationTask;
 
     // Constantes
     private static final int MIN_FACTORS = 1;
@@ -69,10 +92,15 @@ public class NONBPAController implements Initializable {
     private static final int MAX_FACTORS = 9;
     private static final String NUMERIC_REGEX = "\\d*";
     private static final String NUMBER_FORMAT = "%.4f";
+    private static final int UI_BATCH_SIZE = 250;
+    private static final long UI_BATCH_NANOS = 100_000_000L;
+    private static final long PARETO_REFRESH_NANOS = 500_000_000L;
 
     public NONBPAController() {
-        this.generatorService = new NONBPAGeneratorService();
+        this.generatorService = NONBPAGeneratorService.parallel();
         this.fractionResults = FXCollections.observableArrayList();
+        this.visibleResults = new FilteredList<>(fractionResults);
+        resetParetoArchive();
     }
 
     @Override
@@ -97,12 +125,58 @@ public class NONBPAController implements Initializable {
         ToggleGroup fractionTypeGroup = new ToggleGroup();
         randomFractionsRadio.setToggleGroup(fractionTypeGroup);
         customFractionsRadio.setToggleGroup(fractionTypeGroup);
+        paretoFractionsRadio.setToggleGroup(fractionTypeGroup);
         randomFractionsRadio.setSelected(true);
+
+        // El frente de Pareto recorre todas las fracciones, no usa el número de fracciones
+        paretoFractionsRadio.selectedProperty().addListener((obs, oldVal, newVal) ->
+                numberOfFractionsField.setDisable(newVal)
+        );
     }
 
     private void setupResultsTable() {
-        resultsTable.setItems(fractionResults);
+        resultsTable.setItems(visibleResults);
         resultsTable.setRowFactory(this::createTableRowFactory);
+        paretoFrontCheck.selectedProperty().addListener((obs, oldVal, newVal) -> updateParetoFilter());
+    }
+
+    /**
+     * Agrega resultados a la tabla y actualiza el frente de Pareto de la generación.
+     * Los nuevos resultados pasan por el filtro vigente; el filtro sólo se reconstruye si el frente cambió,
+     * y durante la generación no más de una vez cada PARETO_REFRESH_NANOS. Al terminar se refresca completo.
+     */
+    private void addResults(List<FractionResult> batch) {
+        for (FractionResult result : batch) {
+            if (paretoArchive.offer(new FractionScore(result.getStart(), result.getGbm(), result.getJ2(), result.getVifs()))) {
+                paretoFilterStale = true;
+            }
+        }
+        fractionResults.addAll(batch);
+        if (paretoFilterStale && System.nanoTime() - lastParetoRefreshNanos >= PARETO_REFRESH_NANOS) {
+            updateParetoFilter();
+        }
+    }
+
+    private void resetParetoArchive() {
+        paretoArchive = new ParetoArchive();
+        paretoFilterStale = true;
+        lastParetoRefreshNanos = System.nanoTime() - PARETO_REFRESH_NANOS;
+    }
+
+    private void updateParetoFilter() {
+        if (!paretoFrontCheck.isSelected()) {
+            if (visibleResults.getPredicate() != null) {
+                visibleResults.setPredicate(null);
+            }
+            return;
+        }
+        Set<Long> frontStarts = new HashSet<>();
+        for (FractionScore score : paretoArchive.toSortedList()) {
+            frontStarts.add(score.start());
+        }
+        visibleResults.setPredicate(result -> frontStarts.contains(result.getStart()));
+        paretoFilterStale = false;
+        lastParetoRefreshNanos = System.nanoTime();
     }
 
     private TableRow<FractionResult> createTableRowFactory(TableView<FractionResult> tv) {
@@ -161,6 +235,7 @@ public class NONBPAController implements Initializable {
     private void setupValidation() {
         addNumericValidation(fractionSizeField, true);
         addNumericValidation(numberOfFractionsField, false);
+        addNumericValidation(seedField, false);
     }
 
     private void addNumericValidation(TextField field, boolean updateDesignInfo) {
@@ -260,6 +335,12 @@ public class NONBPAController implements Initializable {
             displayDesignParameters(params);
             displayValidationStatus(design, params);
 
+        } catch (NumberFormatException e) {
+            clearDesignInfo();
+        } catch (IllegalArgumentException e) {
+            // Por ejemplo, un TR que no cabe en long
+            clearDesignInfo();
+            logTextArea.setText("Estado: " + e.getMessage());
         } catch (Exception e) {
             clearDesignInfo();
         }
@@ -295,22 +376,88 @@ public class NONBPAController implements Initializable {
 
     @FXML
     private void generateFractions() {
+        if (generationTask != null && generationTask.isRunning()) {
+            return;
+        }
         try {
             int[] design = validateAndGetDesign();
             int fractionSize = parseIntegerField(fractionSizeField, "Tamaño de fracción");
+            if (paretoFractionsRadio.isSelected()) {
+                startGeneration(new GenerationTask(design, fractionSize, 0, null, 0, true));
+                return;
+            }
             int numberOfFractions = parseIntegerField(numberOfFractionsField, "Número de fracciones");
+            List<Long> customFractions = randomFractionsRadio.isSelected()
+                    ? null
+                    : parseCustomFractions(customFractionsField.getText());
 
-            List<FractionResult> results = generateFractionsBasedOnMode(
-                    design, fractionSize, numberOfFractions
-            );
+            long seed = parseSeed();
 
-            displayResults(results);
+            startGeneration(new GenerationTask(design, fractionSize, numberOfFractions, customFractions, seed, false));
 
-        } catch (NumberFormatException e) {
+        } catch (Exception e) {
+            handleGenerationError(e);
+        }
+    }
+
+    @FXML
+    private void cancelGeneration() {
+        if (generationTask != null) {
+            generationTask.cancel();
+        }
+    }
+
+    private void startGeneration(GenerationTask task) {
+        generationTask = task;
+        fractionResults.clear();
+        resetParetoArchive();
+        logTextArea.setText("Generando fracciones...");
+
+        progressBar.progressProperty().bind(task.progressProperty());
+        progressLabel.textProperty().bind(task.messageProperty());
+        setGenerationRunning(true);
+
+        task.setOnSucceeded(e -> {
+            finishGeneration();
+            logTextArea.setText(buildResultsSummary(fractionResults));
+        });
+        task.setOnCancelled(e -> {
+            finishGeneration();
+            logTextArea.setText("Generación cancelada. Fracciones generadas: " + fractionResults.size());
+        });
+        task.setOnFailed(e -> {
+            finishGeneration();
+            logTextArea.clear();
+            handleGenerationError(task.getException());
+        });
+
+        Thread thread = new Thread(task, "nonbpa-generation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void finishGeneration() {
+        progressBar.progressProperty().unbind();
+        progressLabel.textProperty().unbind();
+        setGenerationRunning(false);
+        // Los lotes se entregan antes que el evento de fin, así que el frente ya está completo
+        if (paretoFilterStale) {
+            updateParetoFilter();
+        }
+    }
+
+    private void setGenerationRunning(boolean running) {
+        generateButton.setDisable(running);
+        clearButton.setDisable(running);
+        cancelButton.setDisable(!running);
+    }
+
+    private void handleGenerationError(Throwable e) {
+        if (e instanceof NumberFormatException) {
             showError("Error de entrada", "Verifique que todos los campos numéricos sean válidos");
-        } catch (IllegalArgumentException e) {
+        } else if (e instanceof IllegalArgumentException) {
             showError("Error de validación", e.getMessage());
-        } catch (Exception e) {
+        } else {
             showError("Error", "Error al generar fracciones: " + e.getMessage());
             e.printStackTrace();
         }
@@ -340,28 +487,12 @@ public class NONBPAController implements Initializable {
         return Integer.parseInt(text);
     }
 
-    private List<FractionResult> generateFractionsBasedOnMode(
-            int[] design, int fractionSize, int numberOfFractions) {
-
-        if (randomFractionsRadio.isSelected()) {
-            return generatorService.generateRandomFractions(
-                    design, fractionSize, numberOfFractions
-            );
-        } else {
-            List<Integer> customFractions = parseCustomFractions(
-                    customFractionsField.getText()
-            );
-            return generatorService.generateCustomFractions(
-                    design, fractionSize, customFractions
-            );
-        }
-    }
-
-    private void displayResults(List<FractionResult> results) {
-        fractionResults.clear();
-        fractionResults.addAll(results);
-
-        logTextArea.setText(buildResultsSummary(results));
+    /**
+     * @return la semilla escrita, o una nueva si el campo está vacío
+     */
+    private long parseSeed() {
+        String text = seedField.getText().trim();
+        return text.isEmpty() ? SeededSampler.unseeded().seed() : Long.parseLong(text);
     }
 
     private String buildResultsSummary(List<FractionResult> results) {
@@ -382,6 +513,11 @@ public class NONBPAController implements Initializable {
 
         log.append("─".repeat(50)).append("\n");
         log.append("Total: ").append(results.size()).append(" fracciones\n");
+        log.append("Frente de Pareto (GBM, J2, Max VIF): ").append(paretoArchive.size())
+                .append(" fracciones no dominadas\n");
+        if (generationTask != null && generationTask.isRandom()) {
+            log.append("Semilla: ").append(generationTask.seed).append("\n");
+        }
         log.append("\nDoble clic en una fila para ver detalles y copiar al portapapeles");
 
         return log.toString();
@@ -390,10 +526,15 @@ public class NONBPAController implements Initializable {
     @FXML
     private void clearResults() {
         fractionResults.clear();
+        resetParetoArchive();
+        paretoFrontCheck.setSelected(false);
+        progressBar.setProgress(0);
+        progressLabel.setText("");
         logTextArea.clear();
 
         fractionSizeField.clear();
         numberOfFractionsField.clear();
+        seedField.clear();
         customFractionsField.clear();
 
         factorsInputContainer.getChildren().clear();
@@ -412,7 +553,7 @@ public class NONBPAController implements Initializable {
                 .toArray();
     }
 
-    private List<Integer> parseCustomFractions(String input) {
+    private List<Long> parseCustomFractions(String input) {
         if (input == null || input.trim().isEmpty()) {
             throw new IllegalArgumentException("Campo de fracciones personalizadas vacío");
         }
@@ -422,10 +563,135 @@ public class NONBPAController implements Initializable {
         return Arrays.stream(cleaned.split(","))
                 .map(String::trim)
                 .filter(s -> !s.isEmpty())
-                .map(Integer::parseInt)
+                .map(Long::parseLong)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Genera las fracciones en segundo plano. Los resultados se agregan a la tabla por lotes
+     * y la cancelación interrumpe el hilo, que el servicio revisa entre lotes.
+     * En modo Pareto se recorren todas las fracciones y sólo se publica el frente al terminar.
+     */
+    private class GenerationTask extends Task<Integer> {
+
+        private final int[] design;
+        private final int fractionSize;
+        private final int numberOfFractions;
+        private final List<Long> customFractions;
+        private final long seed;
+        private final boolean paretoFront;
+
+        private final List<FractionResult> pending = new ArrayList<>();
+        private int total;
+        private int generated;
+        private long startNanos;
+        private long lastPublishNanos;
+
+        /**
+         * @param customFractions inicios personalizados, o null para fracciones aleatorias
+         * @param seed semilla de los inicios aleatorios
+         * @param paretoFront si se busca el frente de Pareto de todo el diseño
+         */
+        GenerationTask(int[] design, int fractionSize, int numberOfFractions, List<Long> customFractions,
+                       long seed, boolean paretoFront) {
+            this.design = design;
+            this.fractionSize = fractionSize;
+            this.numberOfFractions = numberOfFractions;
+            this.customFractions = customFractions;
+            this.seed = seed;
+            this.paretoFront = paretoFront;
+        }
+
+        boolean isRandom() {
+            return !paretoFront && customFractions == null;
+        }
+
+        @Override
+        protected Integer call() {
+            if (paretoFront) {
+                return scanParetoFront();
+            }
+            total = customFractions == null ? numberOfFractions : customFractions.size();
+            startNanos = System.nanoTime();
+            lastPublishNanos = startNanos;
+            updateProgress(0, total);
+
+            try {
+                if (customFractions == null) {
+                    generatorService.generateRandomFractions(design, fractionSize, numberOfFractions, seed, this::accept);
+                } else {
+                    generatorService.generateCustomFractions(design, fractionSize, customFractions, this::accept);
+                }
+            } catch (CancellationException e) {
+                // Cancelada entre lotes; isCancelled() ya es true
+                return generated;
+            }
+            publish();
+            return generated;
+        }
+
+        private Integer scanParetoFront() {
+            startNanos = System.nanoTime();
+            long tr = generatorService.calculateParameters(design).tr();
+            updateProgress(0, tr);
+            updateMessage("Buscando el frente de Pareto en todas las fracciones...");
+
+            List<FractionResult> front;
+            try {
+                front = generatorService.scanParetoFront(design, fractionSize, evaluated -> {
+                    double seconds = (System.nanoTime() - startNanos) / 1e9;
+                    double rate = seconds > 0 ? evaluated / seconds : 0;
+                    updateProgress(evaluated, tr);
+                    updateMessage(String.format("Frente de Pareto: %d / %d fracciones (%.0f fracciones/s)",
+                            evaluated, tr, rate));
+                });
+            } catch (CancellationException e) {
+                // Cancelada entre lotes; isCancelled() ya es true
+                return 0;
+            }
+            if (isCancelled()) {
+                return 0;
+            }
+            total = front.size();
+            generated = front.size();
+            pending.addAll(front);
+            publish();
+            return generated;
+        }
+
+        private void accept(FractionResult result) {
+            if (isCancelled()) {
+                throw new CancellationException();
+            }
+            pending.add(result);
+            generated++;
+
+            long now = System.nanoTime();
+            if (pending.size() >= UI_BATCH_SIZE || now - lastPublishNanos >= UI_BATCH_NANOS) {
+                lastPublishNanos = now;
+                publish();
+            }
+        }
+
+        private void publish() {
+            if (!pending.isEmpty()) {
+                List<FractionResult> batch = new ArrayList<>(pending);
+                pending.clear();
+                Platform.runLater(() -> {
+                    // Un lote rezagado de una generación anterior no debe mezclarse con la actual
+                    if (generationTask == this) {
+                        addResults(batch);
+                    }
+                });
+            }
+
+            double seconds = (System.nanoTime() - startNanos) / 1e9;
+            double rate = seconds > 0 ? generated / seconds : 0;
+            updateProgress(generated, total);
+            updateMessage(String.format("%d / %d fracciones (%.0f fracciones/s)", generated, total, rate));
+        }
+    }
+
     private void copyFractionToClipboard(FractionResult fractionResult) {
         double[][] data = fractionResult.getFraction();
         StringBuilder sb = new StringBuilder();
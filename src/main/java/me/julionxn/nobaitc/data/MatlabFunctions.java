@@ -1,22 +1,24 @@
 package me.julionxn.nobaitc.data;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Random;
 import java.util.function.DoublePredicate;
 
 public class MatlabFunctions {
 
     private static final double EPSILON = 1e-10;
-    private static final ThreadLocal<Random> RANDOM = ThreadLocal.withInitial(Random::new);
 
     // ==================== LCM y GCD ====================
 
-    public static int calculateLCM(int[] numbers) {
+    /**
+     * El resultado se acumula en long; si aun así no cabe lanza ArithmeticException
+     */
+    public static long calculateLCM(int[] numbers) {
         if (numbers == null || numbers.length == 0) {
             throw new IllegalArgumentException("Array no puede estar vacío");
         }
-        int result = numbers[0];
+        long result = numbers[0];
         for (int i = 1; i < numbers.length; i++) {
             result = lcm(result, numbers[i]);
         }
@@ -24,7 +26,11 @@ public class MatlabFunctions {
     }
 
     public static int lcm(int a, int b) {
-        return (a / gcd(a, b)) * b; // Evita overflow
+        return Math.multiplyExact(a / gcd(a, b), b);
+    }
+
+    public static long lcm(long a, long b) {
+        return Math.multiplyExact(a / gcd(a, b), b);
     }
 
     public static int gcd(int a, int b) {
@@ -36,42 +42,23 @@ public class MatlabFunctions {
         return a;
     }
 
-    // ==================== Random ====================
-
-    public static int[] nonRepeatableRandomNumbers(int min, int max, int count) {
-        int range = max - min + 1;
-        if (range < count) {
-            throw new IllegalArgumentException("Rango insuficiente para generar " + count + " números únicos");
+    public static long gcd(long a, long b) {
+        while (b > 0) {
+            long temp = b;
+            b = a % b;
+            a = temp;
         }
+        return a;
+    }
 
-        int[] result = new int[count];
-        Random random = RANDOM.get();
-
-        if (count > range * 0.5) {
-            int[] pool = new int[range];
-            for (int i = 0; i < range; i++) {
-                pool[i] = min + i;
-            }
-
-            for (int i = 0; i < count; i++) {
-                int j = i + random.nextInt(range - i);
-                result[i] = pool[j];
-                pool[j] = pool[i];
-            }
-        } else {
-            boolean[] used = new boolean[range];
-            for (int i = 0; i < count; i++) {
-                int num;
-                do {
-                    num = random.nextInt(range);
-                } while (used[num]);
-
-                used[num] = true;
-                result[i] = min + num;
-            }
-        }
+    // ==================== Random ====================
 
-        return result;
+    /**
+     * count enteros distintos de [min, max] en orden aleatorio, con una semilla nueva en cada llamada.
+     * Para corridas reproducibles usar {@link SeededSampler} directamente.
+     */
+    public static int[] nonRepeatableRandomNumbers(int min, int max, int count) {
+        return SeededSampler.unseeded().sample(min, max, count);
     }
 
     // ==================== Operaciones de Vectores ====================
@@ -172,17 +159,14 @@ public class MatlabFunctions {
     // ==================== Operaciones de Matrices ====================
 
     public static double[][] transpose(double[][] matrix) {
-        int rows = matrix.length;
-        int cols = matrix[0].length;
-        double[][] result = new double[cols][rows];
-
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < cols; j++) {
-                result[j][i] = matrix[i][j];
-            }
-        }
+        return Matrix.of(matrix).transpose().toArray();
+    }
 
-        return result;
+    /**
+     * Producto matricial A * B
+     */
+    public static double[][] multiply(double[][] a, double[][] b) {
+        return Matrix.of(a).multiply(Matrix.of(b)).toArray();
     }
 
     /**
@@ -238,17 +222,38 @@ public class MatlabFunctions {
         if (matrix == null || matrix.length == 0) {
             throw new IllegalArgumentException("Matriz vacía");
         }
+        // Por columnas, para que cada columna se recorra en memoria contigua
+        return Matrix.columnMajorOf(matrix).corrcoef().toArray();
+    }
 
-        int cols = matrix[0].length;
-        double[][] corrMatrix = new double[cols][cols];
+    /**
+     * Igual que corrcoef, pero escribe en buffers del llamador en lugar de reservar memoria
+     * @param corrMatrix destino cols x cols
+     * @param means buffer de tamaño cols
+     * @param stdDevs buffer de tamaño cols
+     * @return corrMatrix
+     */
+    public static double[][] corrcoef(double[][] matrix, double[][] corrMatrix, double[] means, double[] stdDevs) {
+        if (matrix == null || matrix.length == 0) {
+            throw new IllegalArgumentException("Matriz vacía");
+        }
 
-        double[] means = new double[cols];
-        double[] stdDevs = new double[cols];
+        int rows = matrix.length;
+        int cols = matrix[0].length;
 
         for (int j = 0; j < cols; j++) {
-            double[] column = extractColumn(matrix, j);
-            means[j] = mean(column);
-            stdDevs[j] = standardDeviation(column, means[j]);
+            double sum = 0;
+            for (double[] row : matrix) {
+                sum += row[j];
+            }
+            double mean = sum / rows;
+            double variance = 0;
+            for (double[] row : matrix) {
+                double diff = row[j] - mean;
+                variance += diff * diff;
+            }
+            means[j] = mean;
+            stdDevs[j] = Math.sqrt(variance / rows);
         }
 
         for (int i = 0; i < cols; i++) {
@@ -304,15 +309,6 @@ public class MatlabFunctions {
         return denominator == 0 ? Double.NaN : covariance / denominator;
     }
 
-    private static double standardDeviation(double[] array, double mean) {
-        double variance = 0;
-        for (double value : array) {
-            double diff = value - mean;
-            variance += diff * diff;
-        }
-        return Math.sqrt(variance / array.length);
-    }
-
     // ==================== Algebra Lineal ====================
 
     public static double[][] inv(double[][] matrix) {
@@ -324,9 +320,22 @@ public class MatlabFunctions {
             }
         }
 
-        double[][] augmented = new double[n][2 * n];
+        Matrix inverse = Matrix.of(matrix).inv();
+        return inverse == null ? null : inverse.toArray();
+    }
+
+    /**
+     * Igual que inv, pero usa buffers del llamador en lugar de reservar memoria
+     * @param augmented buffer n x 2n; su contenido y el orden de sus filas se sobrescriben
+     * @param inverse destino n x n
+     * @return inverse, o null si la matriz es singular
+     */
+    public static double[][] inv(double[][] matrix, double[][] augmented, double[][] inverse) {
+        int n = matrix.length;
+
         for (int i = 0; i < n; i++) {
             System.arraycopy(matrix[i], 0, augmented[i], 0, n);
+            Arrays.fill(augmented[i], n, 2 * n, 0.0);
             augmented[i][n + i] = 1.0;
         }
 
@@ -343,7 +352,6 @@ public class MatlabFunctions {
             eliminateColumn(augmented, i, n);
         }
 
-        double[][] inverse = new double[n][n];
         for (int i = 0; i < n; i++) {
             System.arraycopy(augmented[i], n, inverse[i], 0, n);
         }
@@ -402,7 +410,14 @@ public class MatlabFunctions {
 
     public static double[] diag(double[][] matrix) {
         int n = Math.min(matrix.length, matrix[0].length);
-        double[] result = new double[n];
+        return diag(matrix, new double[n]);
+    }
+
+    /**
+     * Copia la diagonal en el arreglo dado, de tamaño min(filas, columnas)
+     */
+    public static double[] diag(double[][] matrix, double[] result) {
+        int n = Math.min(matrix.length, matrix[0].length);
 
         for (int i = 0; i < n; i++) {
             result[i] = matrix[i][i];
@@ -412,17 +427,7 @@ public class MatlabFunctions {
     }
 
     public static double[][] tril(double[][] matrix) {
-        int rows = matrix.length;
-        int cols = matrix[0].length;
-        double[][] result = new double[rows][cols];
-
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j <= i && j < cols; j++) {
-                result[i][j] = matrix[i][j];
-            }
-        }
-
-        return result;
+        return Matrix.of(matrix).tril().toArray();
     }
 
     public static int nchoosek(int n, int k) {
@@ -432,10 +437,10 @@ public class MatlabFunctions {
 
         long result = 1;
         for (int i = 0; i < k; i++) {
-            result = result * (n - i) / (i + 1);
+            result = Math.multiplyExact(result, n - i) / (i + 1);
         }
 
-        return (int) result;
+        return Math.toIntExact(result);
     }
 
     public static boolean isEmpty(int[] array) {
@@ -0,0 +1,460 @@
+package me.julionxn.nobaitc.data;
+
+import me.julionxn.nobaitc.data.simd.Kernels;
+
+/**
+ * Matriz densa de doubles guardada en un solo arreglo plano.
+ * La posición de (i, j) es offset + i * rowStride + j * colStride, así que la misma clase representa
+ * matrices por filas (colStride = 1), por columnas (rowStride = 1) y vistas sin copia:
+ * transpuesta, fila, columna o submatriz comparten el arreglo de la matriz original.
+ * Las operaciones devuelven matrices nuevas por filas salvo que se indique otra cosa.
+ */
+public final class Matrix {
+
+    private static final double EPSILON = 1e-10;
+    /**
+     * Lado de los bloques de transpose y multiply: 64 x 64 doubles = 32 KB, cabe en L1/L2
+     */
+    private static final int BLOCK = 64;
+
+    private final double[] data;
+    private final int rows;
+    private final int cols;
+    private final int offset;
+    private final int rowStride;
+    private final int colStride;
+
+    private Matrix(double[] data, int rows, int cols, int offset, int rowStride, int colStride) {
+        this.data = data;
+        this.rows = rows;
+        this.cols = cols;
+        this.offset = offset;
+        this.rowStride = rowStride;
+        this.colStride = colStride;
+    }
+
+    // ==================== Construcción ====================
+
+    /**
+     * Matriz de ceros guardada por filas
+     */
+    public static Matrix zeros(int rows, int cols) {
+        if (rows < 0 || cols < 0) {
+            throw new IllegalArgumentException("Dimensiones inválidas: " + rows + "x" + cols);
+        }
+        return new Matrix(new double[rows * cols], rows, cols, 0, cols, 1);
+    }
+
+    /**
+     * Matriz de ceros guardada por columnas
+     */
+    public static Matrix columnMajor(int rows, int cols) {
+        if (rows < 0 || cols < 0) {
+            throw new IllegalArgumentException("Dimensiones inválidas: " + rows + "x" + cols);
+        }
+        return new Matrix(new double[rows * cols], rows, cols, 0, 1, rows);
+    }
+
+    public static Matrix identity(int n) {
+        Matrix result = zeros(n, n);
+        for (int i = 0; i < n; i++) {
+            result.data[i * n + i] = 1.0;
+        }
+        return result;
+    }
+
+    /**
+     * Envuelve un arreglo plano por filas sin copiarlo
+     */
+    public static Matrix wrap(double[] data, int rows, int cols) {
+        if (data.length != rows * cols) {
+            throw new IllegalArgumentException("El arreglo no corresponde a una matriz " + rows + "x" + cols);
+        }
+        return new Matrix(data, rows, cols, 0, cols, 1);
+    }
+
+    /**
+     * Copia una matriz jagged a una matriz por filas
+     */
+    public static Matrix of(double[][] matrix) {
+        Matrix result = zeros(matrix.length, columnsOf(matrix));
+        for (int i = 0; i < result.rows; i++) {
+            System.arraycopy(matrix[i], 0, result.data, i * result.cols, result.cols);
+        }
+        return result;
+    }
+
+    /**
+     * Copia una matriz jagged a una matriz por columnas, útil para recorrer columnas completas
+     */
+    public static Matrix columnMajorOf(double[][] matrix) {
+        Matrix result = columnMajor(matrix.length, columnsOf(matrix));
+        int n = result.rows;
+        for (int i = 0; i < n; i++) {
+            double[] row = matrix[i];
+            for (int j = 0; j < result.cols; j++) {
+                result.data[j * n + i] = row[j];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Matriz diagonal con el vector dado
+     */
+    public static Matrix diag(double[] vector) {
+        int n = vector.length;
+        Matrix result = zeros(n, n);
+        for (int i = 0; i < n; i++) {
+            result.data[i * n + i] = vector[i];
+        }
+        return result;
+    }
+
+    private static int columnsOf(double[][] matrix) {
+        if (matrix.length == 0) {
+            return 0;
+        }
+        int cols = matrix[0].length;
+        for (double[] row : matrix) {
+            if (row.length != cols) {
+                throw new IllegalArgumentException("Todas las filas deben tener el mismo tamaño");
+            }
+        }
+        return cols;
+    }
+
+    // ==================== Acceso ====================
+
+    public int rows() {
+        return rows;
+    }
+
+    public int cols() {
+        return cols;
+    }
+
+    public double get(int i, int j) {
+        return data[index(i, j)];
+    }
+
+    public void set(int i, int j, double value) {
+        data[index(i, j)] = value;
+    }
+
+    /**
+     * @return true si las filas son contiguas en el arreglo (guardada por filas, sin huecos)
+     */
+    public boolean isRowMajor() {
+        return colStride == 1 && rowStride == cols;
+    }
+
+    /**
+     * @return true si las columnas son contiguas en el arreglo (guardada por columnas, sin huecos)
+     */
+    public boolean isColumnMajor() {
+        return rowStride == 1 && colStride == rows;
+    }
+
+    private int index(int i, int j) {
+        if (i < 0 || i >= rows || j < 0 || j >= cols) {
+            throw new IndexOutOfBoundsException("(" + i + ", " + j + ") fuera de " + rows + "x" + cols);
+        }
+        return offset + i * rowStride + j * colStride;
+    }
+
+    // ==================== Vistas ====================
+
+    /**
+     * Transpuesta sin copia: intercambia los strides
+     */
+    public Matrix transposeView() {
+        return new Matrix(data, cols, rows, offset, colStride, rowStride);
+    }
+
+    /**
+     * Fila i como vista 1 x cols
+     */
+    public Matrix row(int i) {
+        return submatrix(i, 0, 1, cols);
+    }
+
+    /**
+     * Columna j como vista rows x 1
+     */
+    public Matrix column(int j) {
+        return submatrix(0, j, rows, 1);
+    }
+
+    /**
+     * Vista de las filas [row, row + height) y columnas [col, col + width)
+     */
+    public Matrix submatrix(int row, int col, int height, int width) {
+        if (row < 0 || col < 0 || height < 0 || width < 0 || row + height > rows || col + width > cols) {
+            throw new IndexOutOfBoundsException("Submatriz fuera de " + rows + "x" + cols);
+        }
+        return new Matrix(data, height, width, offset + row * rowStride + col * colStride, rowStride, colStride);
+    }
+
+    // ==================== Conversión ====================
+
+    /**
+     * Adaptador a la representación jagged que usan MatlabFunctions y los calculadores
+     */
+    public double[][] toArray() {
+        double[][] result = new double[rows][cols];
+        for (int i = 0; i < rows; i++) {
+            double[] row = result[i];
+            int base = offset + i * rowStride;
+            if (colStride == 1) {
+                System.arraycopy(data, base, row, 0, cols);
+            } else {
+                for (int j = 0; j < cols; j++) {
+                    row[j] = data[base + j * colStride];
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Copia contigua por filas
+     */
+    public Matrix copy() {
+        if (isRowMajor()) {
+            double[] copy = new double[rows * cols];
+            System.arraycopy(data, offset, copy, 0, copy.length);
+            return new Matrix(copy, rows, cols, 0, cols, 1);
+        }
+        return transposeView().transpose();
+    }
+
+    /**
+     * Copia contigua por columnas
+     */
+    public Matrix columnMajorCopy() {
+        // A^T guardada por filas tiene las columnas de A contiguas
+        Matrix transposed = transpose();
+        return new Matrix(transposed.data, rows, cols, 0, 1, rows);
+    }
+
+    // ==================== Operaciones ====================
+
+    /**
+     * Transpuesta como matriz nueva por filas, copiada por bloques para que tanto la lectura
+     * como la escritura se mantengan dentro de la caché
+     */
+    public Matrix transpose() {
+        Matrix result = zeros(cols, rows);
+        double[] out = result.data;
+        for (int ii = 0; ii < rows; ii += BLOCK) {
+            int iEnd = Math.min(ii + BLOCK, rows);
+            for (int jj = 0; jj < cols; jj += BLOCK) {
+                int jEnd = Math.min(jj + BLOCK, cols);
+                for (int i = ii; i < iEnd; i++) {
+                    int base = offset + i * rowStride;
+                    for (int j = jj; j < jEnd; j++) {
+                        out[j * rows + i] = data[base + j * colStride];
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Producto matricial por bloques. Los operandos se copian a un arreglo contiguo por filas
+     * si no lo están, y el bucle interno recorre filas de B y C de forma secuencial (orden i-k-j).
+     */
+    public Matrix multiply(Matrix other) {
+        if (cols != other.rows) {
+            throw new IllegalArgumentException("Dimensiones incompatibles: " + rows + "x" + cols
+                    + " por " + other.rows + "x" + other.cols);
+        }
+        Matrix a = isRowMajor() ? this : copy();
+        Matrix b = other.isRowMajor() ? other : other.copy();
+        int n = rows;
+        int inner = cols;
+        int m = other.cols;
+        Matrix result = zeros(n, m);
+        double[] c = result.data;
+        double[] aData = a.data;
+        double[] bData = b.data;
+
+        for (int ii = 0; ii < n; ii += BLOCK) {
+            int iEnd = Math.min(ii + BLOCK, n);
+            for (int kk = 0; kk < inner; kk += BLOCK) {
+                int kEnd = Math.min(kk + BLOCK, inner);
+                for (int jj = 0; jj < m; jj += BLOCK) {
+                    int jEnd = Math.min(jj + BLOCK, m);
+                    for (int i = ii; i < iEnd; i++) {
+                        int aRow = a.offset + i * inner;
+                        int cRow = i * m;
+                        for (int k = kk; k < kEnd; k++) {
+                            double aik = aData[aRow + k];
+                            if (aik == 0) continue;
+                            int bRow = b.offset + k * m;
+                            for (int j = jj; j < jEnd; j++) {
+                                c[cRow + j] += aik * bData[bRow + j];
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Matriz de correlaciones de las columnas, equivalente a MatlabFunctions.corrcoef.
+     * Trabaja sobre una copia por columnas para que medias, desviaciones y covarianzas
+     * recorran memoria contigua; los bucles por columna usan {@link Kernels#active()}.
+     */
+    public Matrix corrcoef() {
+        if (rows == 0) {
+            throw new IllegalArgumentException("Matriz vacía");
+        }
+        Matrix columns = isColumnMajor() ? this : columnMajorCopy();
+        double[] x = columns.data;
+        int base = columns.offset;
+        double[] means = new double[cols];
+        double[] stdDevs = new double[cols];
+        Kernels kernels = Kernels.active();
+
+        for (int j = 0; j < cols; j++) {
+            int start = base + j * rows;
+            double mean = kernels.sum(x, start, rows) / rows;
+            means[j] = mean;
+            stdDevs[j] = Math.sqrt(kernels.sumSquaredDeviations(x, start, rows, mean) / rows);
+        }
+
+        Matrix result = zeros(cols, cols);
+        double[] corr = result.data;
+        for (int i = 0; i < cols; i++) {
+            corr[i * cols + i] = 1.0;
+            int first = base + i * rows;
+            for (int j = i + 1; j < cols; j++) {
+                double value = Double.NaN;
+                if (stdDevs[i] != 0 && stdDevs[j] != 0) {
+                    double covariance = kernels.centeredDot(x, first, x, base + j * rows, rows, means[i], means[j]);
+                    value = covariance / (rows * stdDevs[i] * stdDevs[j]);
+                }
+                corr[i * cols + j] = value;
+                corr[j * cols + i] = value;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Inversa por Gauss-Jordan con pivoteo parcial sobre una matriz aumentada plana n x 2n
+     * @return la inversa, o null si la matriz es singular
+     */
+    public Matrix inv() {
+        if (rows != cols) {
+            throw new IllegalArgumentException("Matriz debe ser cuadrada");
+        }
+        int n = rows;
+        int width = 2 * n;
+        double[] augmented = new double[n * width];
+        for (int i = 0; i < n; i++) {
+            int base = offset + i * rowStride;
+            for (int j = 0; j < n; j++) {
+                augmented[i * width + j] = data[base + j * colStride];
+            }
+            augmented[i * width + n + i] = 1.0;
+        }
+
+        for (int i = 0; i < n; i++) {
+            int maxRow = i;
+            double maxVal = Math.abs(augmented[i * width + i]);
+            for (int k = i + 1; k < n; k++) {
+                double val = Math.abs(augmented[k * width + i]);
+                if (val > maxVal) {
+                    maxVal = val;
+                    maxRow = k;
+                }
+            }
+            if (maxRow != i) {
+                swapRows(augmented, width, i, maxRow);
+            }
+            int pivotRow = i * width;
+            if (Math.abs(augmented[pivotRow + i]) < EPSILON) {
+                return null;
+            }
+            double scale = 1.0 / augmented[pivotRow + i];
+            for (int j = 0; j < width; j++) {
+                augmented[pivotRow + j] *= scale;
+            }
+            for (int k = 0; k < n; k++) {
+                if (k == i) continue;
+                int row = k * width;
+                double factor = augmented[row + i];
+                for (int j = 0; j < width; j++) {
+                    augmented[row + j] -= factor * augmented[pivotRow + j];
+                }
+            }
+        }
+
+        Matrix inverse = zeros(n, n);
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(augmented, i * width + n, inverse.data, i * n, n);
+        }
+        return inverse;
+    }
+
+    private static void swapRows(double[] matrix, int width, int row1, int row2) {
+        int a = row1 * width;
+        int b = row2 * width;
+        for (int j = 0; j < width; j++) {
+            double temp = matrix[a + j];
+            matrix[a + j] = matrix[b + j];
+            matrix[b + j] = temp;
+        }
+    }
+
+    /**
+     * Parte triangular inferior (incluye la diagonal), el resto en cero
+     */
+    public Matrix tril() {
+        Matrix result = zeros(rows, cols);
+        for (int i = 0; i < rows; i++) {
+            int base = offset + i * rowStride;
+            int end = Math.min(i + 1, cols);
+            for (int j = 0; j < end; j++) {
+                result.data[i * cols + j] = data[base + j * colStride];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Diagonal principal, de tamaño min(filas, columnas)
+     */
+    public double[] diag() {
+        int n = Math.min(rows, cols);
+        double[] result = new double[n];
+        for (int i = 0; i < n; i++) {
+            result[i] = data[offset + i * (rowStride + colStride)];
+        }
+        return result;
+    }
+
+    /**
+     * Máximo de la columna j recorriendo su stride, sin extraerla
+     */
+    public double maxColumn(int j) {
+        if (rows == 0) {
+            throw new IllegalArgumentException("Matriz vacía");
+        }
+        int position = index(0, j);
+        double max = data[position];
+        for (int i = 1; i < rows; i++) {
+            position += rowStride;
+            if (data[position] > max) {
+                max = data[position];
+            }
+        }
+        return max;
+    }
+}
@@ -0,0 +1,166 @@
+package me.julionxn.nobaitc.data;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Muestreo sin repetición reproducible a partir de una semilla.
+ * <ul>
+ *     <li>Muestras dispersas (count ≤ rango / {@value #DENSE_RATIO}): algoritmo de Floyd con un conjunto
+ *     hash de enteros, O(count) en tiempo y memoria sin importar el tamaño del rango.</li>
+ *     <li>Muestras densas: Fisher–Yates parcial sobre el rango, que ya es a lo más
+ *     {@value #DENSE_RATIO} veces count.</li>
+ * </ul>
+ * Cada subflujo {@link #substream(long)} es una secuencia independiente que sólo depende de la
+ * semilla y de su índice, así que un trabajo dividido en bloques por índice da los mismos números
+ * con cualquier número de hilos. No es seguro para uso concurrente: cada hilo usa su subflujo.
+ */
+public final class SeededSampler {
+
+    private static final int DENSE_RATIO = 4;
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final long seed;
+    private final SplittableRandom random;
+
+    public SeededSampler(long seed) {
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Muestreador con una semilla nueva; consultar {@link #seed()} para repetir la corrida
+     */
+    public static SeededSampler unseeded() {
+        return new SeededSampler(new SplittableRandom().nextLong());
+    }
+
+    public long seed() {
+        return seed;
+    }
+
+    /**
+     * Subflujo determinista: el mismo índice da siempre la misma secuencia para esta semilla
+     */
+    public SeededSampler substream(long index) {
+        return new SeededSampler(mix64(seed + (index + 1) * GOLDEN_GAMMA));
+    }
+
+    public int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+
+    public long nextLong(long bound) {
+        return random.nextLong(bound);
+    }
+
+    public double nextDouble() {
+        return random.nextDouble();
+    }
+
+    /**
+     * @return count enteros distintos de [min, max] en orden aleatorio
+     */
+    public int[] sample(int min, int max, int count) {
+        long[] values = sample((long) min, max, count);
+        int[] result = new int[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = (int) values[i];
+        }
+        return result;
+    }
+
+    /**
+     * Igual que sample, para rangos que no caben en int (por ejemplo, los inicios de un diseño grande)
+     * @return count enteros distintos de [min, max] en orden aleatorio
+     */
+    public long[] sample(long min, long max, int count) {
+        long range = max - min + 1;
+        if (count < 0 || range <= 0 || range < count) {
+            throw new IllegalArgumentException("Rango insuficiente para generar " + count + " números únicos");
+        }
+        if (count == 0) {
+            return new long[0];
+        }
+        return range <= (long) count * DENSE_RATIO
+                ? partialFisherYates(min, (int) range, count)
+                : floyd(min, range, count);
+    }
+
+    private long[] partialFisherYates(long min, int range, int count) {
+        long[] pool = new long[range];
+        for (int i = 0; i < range; i++) {
+            pool[i] = min + i;
+        }
+        long[] result = new long[count];
+        for (int i = 0; i < count; i++) {
+            int j = i + random.nextInt(range - i);
+            result[i] = pool[j];
+            pool[j] = pool[i];
+        }
+        return result;
+    }
+
+    /**
+     * Floyd: para j = range - count .. range - 1 se elige t en [0, j]; si ya salió se toma j.
+     * Produce un conjunto uniforme; se baraja al final para que el orden también sea aleatorio.
+     */
+    private long[] floyd(long min, long range, int count) {
+        LongHashSet chosen = new LongHashSet(count);
+        long[] result = new long[count];
+        int size = 0;
+        for (long j = range - count; j < range; j++) {
+            long t = random.nextLong(j + 1);
+            long value = chosen.add(t) ? t : j;
+            if (value == j) {
+                chosen.add(j);
+            }
+            result[size++] = min + value;
+        }
+        for (int i = count - 1; i > 0; i--) {
+            int k = random.nextInt(i + 1);
+            long temp = result[i];
+            result[i] = result[k];
+            result[k] = temp;
+        }
+        return result;
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Conjunto de enteros no negativos con direccionamiento abierto, sin cajas de Long
+     */
+    private static final class LongHashSet {
+
+        private static final long EMPTY = -1;
+        private final long[] table;
+        private final int mask;
+
+        LongHashSet(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(4, expected * 2 - 1)) << 1;
+            this.table = new long[capacity];
+            this.mask = capacity - 1;
+            Arrays.fill(table, EMPTY);
+        }
+
+        /**
+         * @return true si el valor no estaba
+         */
+        boolean add(long value) {
+            int index = (int) mix64(value) & mask;
+            while (table[index] != EMPTY) {
+                if (table[index] == value) {
+                    return false;
+                }
+                index = (index + 1) & mask;
+            }
+            table[index] = value;
+            return true;
+        }
+    }
+}
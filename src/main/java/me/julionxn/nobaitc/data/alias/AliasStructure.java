@@ -2,6 +2,7 @@ package me.julionxn.nobaitc.data.alias;
 
 import lombok.Getter;
 
+import java.io.PrintStream;
 import java.util.*;
 
 /**
@@ -52,7 +53,14 @@ public class AliasStructure {
      * Imprime la estructura de alias en consola
      */
     public void print() {
-        System.out.println("\n============ ESTRUCTURA DE ALIAS ============");
+        print(System.out);
+    }
+
+    /**
+     * Imprime la estructura de alias en el flujo indicado
+     */
+    public void print(PrintStream out) {
+        out.println("\n============ ESTRUCTURA DE ALIAS ============");
 
         for (String efecto : efectos) {
             List<AliasPair> alias = aliasMap.get(efecto);
@@ -62,11 +70,11 @@ public class AliasStructure {
                 for (AliasPair par : alias) {
                     sb.append(" ").append(par.coeficiente).append(" ").append(par.efecto).append(" + ");
                 }
-                System.out.println(sb);
+                out.println(sb);
             }
         }
 
-        System.out.println("\n============================================");
+        out.println("\n============================================");
     }
 
     /**
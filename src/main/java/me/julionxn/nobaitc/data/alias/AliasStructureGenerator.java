@@ -1,6 +1,7 @@
 package me.julionxn.nobaitc.data.alias;
 
 import me.julionxn.nobaitc.data.MatlabFunctions;
+import me.julionxn.nobaitc.data.simd.Kernels;
 import me.julionxn.nobaitc.util.FormatHelper;
 
 import java.util.*;
@@ -137,9 +138,7 @@ public class AliasStructureGenerator {
      */
     private double[] multiplicarColumnas(double[] col1, double[] col2) {
         double[] resultado = new double[col1.length];
-        for (int i = 0; i < col1.length; i++) {
-            resultado[i] = col1[i] * col2[i];
-        }
+        Kernels.active().multiply(col1, col2, resultado, col1.length);
         return resultado;
     }
 
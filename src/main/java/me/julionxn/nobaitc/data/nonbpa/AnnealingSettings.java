@@ -0,0 +1,52 @@
+package me.julionxn.nobaitc.data.nonbpa;
+
+/**
+ * Parámetros de la búsqueda de fracciones por recocido simulado sobre filas sueltas.
+ * El objetivo a minimizar es gbmWeight·GBM + j2Weight·J2 + vifWeight·Max VIF;
+ * una fracción singular (VIF NaN) vale infinito si vifWeight &gt; 0.
+ * @param gbmWeight peso del GBM
+ * @param j2Weight peso del J2
+ * @param vifWeight peso del Max VIF; con 0 no se invierte la matriz de correlaciones en cada paso
+ * @param restarts reinicios independientes; con pool se reparten entre sus hilos
+ * @param maxIterations intercambios por reinicio, o Long.MAX_VALUE para limitar sólo por tiempo
+ * @param timeLimitMillis tiempo máximo por reinicio, o Long.MAX_VALUE para limitar sólo por iteraciones
+ * @param seed semilla; con límite de iteraciones el resultado es el mismo con cualquier número de hilos
+ */
+public record AnnealingSettings(double gbmWeight, double j2Weight, double vifWeight,
+                                int restarts, long maxIterations, long timeLimitMillis, long seed) {
+
+    public AnnealingSettings {
+        if (!(gbmWeight >= 0) || !(j2Weight >= 0) || !(vifWeight >= 0)
+                || Double.isInfinite(gbmWeight) || Double.isInfinite(j2Weight) || Double.isInfinite(vifWeight)) {
+            throw new IllegalArgumentException("Los pesos deben ser finitos y ≥ 0");
+        }
+        if (gbmWeight + j2Weight + vifWeight == 0) {
+            throw new IllegalArgumentException("Al menos un peso debe ser mayor a 0");
+        }
+        if (restarts <= 0) {
+            throw new IllegalArgumentException("Debe haber al menos un reinicio");
+        }
+        if (maxIterations <= 0 || timeLimitMillis <= 0) {
+            throw new IllegalArgumentException("Los límites de iteraciones y tiempo deben ser mayores a 0");
+        }
+        if (maxIterations == Long.MAX_VALUE && timeLimitMillis == Long.MAX_VALUE) {
+            throw new IllegalArgumentException("Debe haber un límite de iteraciones o de tiempo");
+        }
+    }
+
+    /**
+     * Pesos iguales, un reinicio por procesador y sólo límite de iteraciones
+     */
+    public static AnnealingSettings of(long maxIterations, long seed) {
+        return new AnnealingSettings(1, 1, 1, Runtime.getRuntime().availableProcessors(),
+                maxIterations, Long.MAX_VALUE, seed);
+    }
+
+    double objective(double gbm, double j2, double maxVif) {
+        double value = gbmWeight * gbm + j2Weight * j2;
+        if (vifWeight > 0) {
+            value += Double.isNaN(maxVif) ? Double.POSITIVE_INFINITY : vifWeight * maxVif;
+        }
+        return value;
+    }
+}
@@ -2,6 +2,8 @@ package me.julionxn.nobaitc.data.nonbpa;
 
 import me.julionxn.nobaitc.data.MatlabFunctions;
 
+import java.util.Arrays;
+
 /**
  * Calcula el parámetro GBM.
  */
@@ -34,4 +36,112 @@ public class BalancedGBMMatrix {
 
         return gbmTotal;
     }
+
+    /**
+     * Igual que calculateGBM, pero cuenta cada nivel en el buffer del workspace en una pasada
+     * por columna, sin copiar la columna ni recorrerla una vez por nivel
+     */
+    public double calculateGBM(double[][] fraction, int[] design, EvaluationWorkspace workspace) {
+        int rows = fraction.length;
+        int factors = fraction[0].length;
+        int[] counts = workspace.levelCounts;
+
+        double gbmTotal = 0;
+
+        for (int factor = 0; factor < factors; factor++) {
+            int levels = design[factor];
+            double expectedCount = (double) rows / levels;
+            Arrays.fill(counts, 0, levels + 1, 0);
+            for (double[] row : fraction) {
+                double value = row[factor];
+                int level = (int) value;
+                // Igual que countOccurrences: sólo cuentan valores exactamente iguales a un nivel
+                if (level == value && level >= 1 && level <= levels) {
+                    counts[level]++;
+                }
+            }
+            double factorGBM = 0;
+            for (int level = 1; level <= levels; level++) {
+                factorGBM += MatlabFunctions.squaredDifference(counts[level], expectedCount);
+            }
+
+            gbmTotal += factorGBM;
+        }
+
+        return gbmTotal;
+    }
+
+    /**
+     * Calcula el parámetro GBM para una vista de fracción.
+     * En una ventana de filas consecutivas, de los niveles de un factor, rows mod L aparecen
+     * rows / L + 1 veces y el resto rows / L veces, sin importar el inicio. Así el numerador
+     * L * Σ n_a² - rows² se reduce a r * (L - r) con r = rows mod L: no hace falta recorrer las filas
+     * y el GBM es el mismo, bit a bit, para cualquier inicio.
+     * @param view vista de la fracción
+     * @return GBM
+     */
+    public double calculateGBM(FractionView view) {
+        return windowGbm(view.design(), view.rows());
+    }
+
+    /**
+     * GBM de cualquier ventana de rows filas consecutivas del diseño
+     */
+    static double windowGbm(int[] design, long rows) {
+        double gbmTotal = 0;
+        for (int levels : design) {
+            long remainder = rows % levels;
+            gbmTotal += factorGbm(remainder * (levels - remainder), levels);
+        }
+        return gbmTotal;
+    }
+
+    /**
+     * GBM de un factor a partir de su numerador exacto L * Σ n_a² - rows².
+     * Todos los cálculos sobre conteos enteros suman este valor factor por factor, en el orden del diseño,
+     * para que la misma fracción dé el mismo double sin importar el camino.
+     */
+    static double factorGbm(long numerator, int levels) {
+        return (double) numerator / levels;
+    }
+
+    /**
+     * Calcula el parámetro GBM sobre niveles enteros.
+     * Por factor, Σ (n_a - rows/L)² = (L * Σ n_a² - rows²) / L; el numerador se acumula en long
+     * y sólo se divide al final, así el resultado es exacto salvo por esa división.
+     * @param fraction fracción en representación compacta
+     * @param design arreglo con los niveles de cada factor
+     * @return GBM
+     */
+    public double calculateGBM(LevelMatrix fraction, int[] design) {
+        return calculateGBM(fraction, design, new EvaluationWorkspace(fraction.factors()));
+    }
+
+    /**
+     * Igual que calculateGBM sobre niveles enteros, pero cuenta en el buffer del workspace
+     */
+    public double calculateGBM(LevelMatrix fraction, int[] design, EvaluationWorkspace workspace) {
+        int rows = fraction.rows();
+        int factors = fraction.factors();
+        byte[] cells = fraction.cells();
+        int[] counts = workspace.levelCounts;
+
+        double gbmTotal = 0;
+
+        for (int factor = 0; factor < factors; factor++) {
+            int levels = design[factor];
+            Arrays.fill(counts, 0);
+            for (int i = factor; i < cells.length; i += factors) {
+                counts[cells[i] & 0xFF]++;
+            }
+            long squaredCounts = 0;
+            for (int level = 1; level <= levels; level++) {
+                squaredCounts += (long) counts[level] * counts[level];
+            }
+            long numerator = levels * squaredCounts - (long) rows * rows;
+            gbmTotal += factorGbm(numerator, levels);
+        }
+
+        return gbmTotal;
+    }
 }
\ No newline at end of file
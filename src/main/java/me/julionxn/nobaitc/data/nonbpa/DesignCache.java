@@ -0,0 +1,109 @@
+package me.julionxn.nobaitc.data.nonbpa;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Caché LRU de diseños preparados, indexada por (diseño, tamaño de fracción).
+ * Desaloja los menos usados cuando la memoria estimada supera el límite.
+ */
+public class DesignCache {
+
+    private final long maxBytes;
+    private final LinkedHashMap<Key, PreparedDesign> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long currentBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * @param maxBytes memoria estimada máxima de las entradas; 0 desactiva la caché
+     */
+    public DesignCache(long maxBytes) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("El límite de memoria no puede ser negativo");
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Devuelve el diseño preparado, construyéndolo con loader si no está en caché.
+     * Si loader lanza una excepción no se guarda nada.
+     */
+    public PreparedDesign get(int[] design, int fractionSize, Supplier<PreparedDesign> loader) {
+        Key key = new Key(design.clone(), fractionSize);
+        synchronized (this) {
+            PreparedDesign cached = entries.get(key);
+            if (cached != null) {
+                hits++;
+                return cached;
+            }
+            misses++;
+        }
+
+        // Se construye fuera del candado; si dos hilos coinciden, gana el primero en guardar
+        PreparedDesign prepared = loader.get();
+        long size = prepared.estimatedBytes();
+
+        synchronized (this) {
+            PreparedDesign existing = entries.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            if (size > maxBytes) {
+                return prepared;
+            }
+            entries.put(key, prepared);
+            currentBytes += size;
+            evictIfNeeded();
+        }
+        return prepared;
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<Key, PreparedDesign>> iterator = entries.entrySet().iterator();
+        while (currentBytes > maxBytes && iterator.hasNext()) {
+            currentBytes -= iterator.next().getValue().estimatedBytes();
+            iterator.remove();
+            evictions++;
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        currentBytes = 0;
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(hits, misses, evictions, entries.size(), currentBytes, maxBytes);
+    }
+
+    /**
+     * Estadísticas de la caché en un momento dado
+     */
+    public record Stats(long hits, long misses, long evictions, int entries, long bytes, long maxBytes) {
+
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+    }
+
+    private record Key(int[] design, int fractionSize) {
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key other
+                    && fractionSize == other.fractionSize
+                    && Arrays.equals(design, other.design);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Arrays.hashCode(design) + fractionSize;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package me.julionxn.nobaitc.data.nonbpa;
+
+/**
+ * Buffers reutilizables para evaluar fracciones de un diseño sin reservar memoria por fracción.
+ * Cubre los intermedios de GBM y VIFs: conteos por nivel, sumas de columnas, matriz de
+ * correlaciones, la factorización LDLᵀ y, sólo si se necesitan, la matriz aumentada e inversa
+ * de MatlabFunctions.inv. Con un workspace, lo único que se reserva es el resultado que se conserva.
+ * No es seguro para uso concurrente; {@link #forCurrentThread(int)} da uno por hilo.
+ */
+public final class EvaluationWorkspace {
+
+    private static final ThreadLocal<EvaluationWorkspace> CURRENT = new ThreadLocal<>();
+
+    private final int factors;
+
+    // GBM: conteo de cada nivel (1..LevelMatrix.MAX_LEVEL) de un factor
+    final int[] levelCounts;
+    // Sumas de columna y productos cruzados (k <= l)
+    final long[] sums;
+    final long[][] crossSums;
+    final int[] levelIndex;
+    // Matriz de correlaciones y desviaciones de cada columna
+    final double[][] correlation;
+    final double[] deviations;
+    final double[] means;
+    // Factorización LDLᵀ: L triangular inferior unitaria, pivotes de D y columna de L⁻¹
+    final double[][] lower;
+    final double[] pivots;
+    final double[] column;
+    // Respaldo con la inversa completa, sólo se reservan si la matriz no es definida positiva
+    private double[][] augmented;
+    private double[][] inverse;
+
+    /**
+     * @param factors número de factores del diseño
+     */
+    public EvaluationWorkspace(int factors) {
+        if (factors <= 0) {
+            throw new IllegalArgumentException("El número de factores debe ser positivo");
+        }
+        this.factors = factors;
+        this.levelCounts = new int[LevelMatrix.MAX_LEVEL + 1];
+        this.sums = new long[factors];
+        this.crossSums = new long[factors][factors];
+        this.levelIndex = new int[factors];
+        this.correlation = new double[factors][factors];
+        this.deviations = new double[factors];
+        this.means = new double[factors];
+        this.lower = new double[factors][factors];
+        this.pivots = new double[factors];
+        this.column = new double[factors];
+    }
+
+    /**
+     * Workspace del hilo actual para el número de factores indicado.
+     * Se conserva entre llamadas y sólo se reemplaza si cambia el número de factores.
+     */
+    public static EvaluationWorkspace forCurrentThread(int factors) {
+        EvaluationWorkspace workspace = CURRENT.get();
+        if (workspace == null || workspace.factors != factors) {
+            workspace = new EvaluationWorkspace(factors);
+            CURRENT.set(workspace);
+        }
+        return workspace;
+    }
+
+    public int factors() {
+        return factors;
+    }
+
+    double[][] augmented() {
+        if (augmented == null) {
+            augmented = new double[factors][2 * factors];
+        }
+        return augmented;
+    }
+
+    double[][] inverse() {
+        if (inverse == null) {
+            inverse = new double[factors][factors];
+        }
+        return inverse;
+    }
+
+    void checkFactors(int expected) {
+        if (expected != factors) {
+            throw new IllegalArgumentException("El workspace es para " + factors + " factores, no " + expected);
+        }
+    }
+}
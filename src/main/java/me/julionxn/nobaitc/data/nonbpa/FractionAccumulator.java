@@ -0,0 +1,148 @@
+package me.julionxn.nobaitc.data.nonbpa;
+
+import java.util.Arrays;
+
+/**
+ * Buffers con los que se derivan GBM, J2 y la matriz de correlaciones de un conjunto de filas.
+ * Agregar o quitar una fila actualiza en O(factores²):
+ * <ul>
+ *     <li>conteos por nivel de cada factor (GBM)</li>
+ *     <li>conteos de pares de niveles por par de factores (J2)</li>
+ *     <li>sumas y productos cruzados de las columnas (correlaciones para los VIFs)</li>
+ * </ul>
+ * Los conteos son enteros, por lo que no acumulan error. No es seguro para uso concurrente.
+ */
+class FractionAccumulator {
+
+    private final int[] design;
+    private final int factors;
+
+    // Conteos de cada nivel por factor y suma de sus cuadrados
+    private final int[][] levelCounts;
+    private final long[] squaredCounts;
+    // Conteos de pares de niveles para cada par de factores k < l, indexados a * levels[l] + b
+    private final int[][][] pairCounts;
+    // Sumas de columna y productos cruzados (k <= l)
+    private final long[] columnSums;
+    private final long[][] crossSums;
+
+    private int rows;
+    private long j2;
+
+    FractionAccumulator(int[] design) {
+        this.design = design;
+        this.factors = design.length;
+
+        this.levelCounts = new int[factors][];
+        this.squaredCounts = new long[factors];
+        this.pairCounts = new int[factors][factors][];
+        this.columnSums = new long[factors];
+        this.crossSums = new long[factors][factors];
+
+        for (int k = 0; k < factors; k++) {
+            levelCounts[k] = new int[design[k]];
+            for (int l = k + 1; l < factors; l++) {
+                pairCounts[k][l] = new int[design[k] * design[l]];
+            }
+        }
+    }
+
+    void reset() {
+        for (int k = 0; k < factors; k++) {
+            Arrays.fill(levelCounts[k], 0);
+            Arrays.fill(crossSums[k], 0);
+            for (int l = k + 1; l < factors; l++) {
+                Arrays.fill(pairCounts[k][l], 0);
+            }
+        }
+        Arrays.fill(squaredCounts, 0);
+        Arrays.fill(columnSums, 0);
+        rows = 0;
+        j2 = 0;
+    }
+
+    /**
+     * Agrega una fila. J2 suma matches² contra cada fila presente,
+     * que es Σ_k,l N_kl(x_k, x_l) sobre todos los pares ordenados de factores.
+     * @param levelIndices índice (0..niveles-1) del nivel de cada factor
+     */
+    void add(int[] levelIndices) {
+        j2 += matchesAgainst(levelIndices);
+        update(levelIndices, 1);
+        rows++;
+    }
+
+    /**
+     * Quita una fila presente. Se descuenta su comparación consigo misma (factores²).
+     * @param levelIndices índice (0..niveles-1) del nivel de cada factor
+     */
+    void remove(int[] levelIndices) {
+        j2 -= matchesAgainst(levelIndices) - (long) factors * factors;
+        update(levelIndices, -1);
+        rows--;
+    }
+
+    int rows() {
+        return rows;
+    }
+
+    double gbm() {
+        double gbmTotal = 0;
+        for (int k = 0; k < factors; k++) {
+            // Σ (n_a - rows/L)² = (L * Σ n_a² - rows²) / L, con el numerador exacto
+            long numerator = design[k] * squaredCounts[k] - (long) rows * rows;
+            gbmTotal += BalancedGBMMatrix.factorGbm(numerator, design[k]);
+        }
+        return gbmTotal;
+    }
+
+    long j2() {
+        return j2;
+    }
+
+    /**
+     * Matriz de correlaciones de las filas presentes, equivalente a corrcoef
+     */
+    double[][] correlation() {
+        return VIFSMatrix.correlationFromSums(rows, columnSums, crossSums);
+    }
+
+    /**
+     * Igual que correlation, pero escribe en la matriz del workspace
+     */
+    double[][] correlation(EvaluationWorkspace workspace) {
+        return VIFSMatrix.correlationFromSums(rows, columnSums, crossSums, workspace.correlation, workspace.deviations);
+    }
+
+    private long matchesAgainst(int[] levelIndices) {
+        long diagonal = 0;
+        long offDiagonal = 0;
+        for (int k = 0; k < factors; k++) {
+            int a = levelIndices[k];
+            diagonal += levelCounts[k][a];
+            for (int l = k + 1; l < factors; l++) {
+                offDiagonal += pairCounts[k][l][a * design[l] + levelIndices[l]];
+            }
+        }
+        return diagonal + 2 * offDiagonal;
+    }
+
+    private void update(int[] levelIndices, int delta) {
+        for (int k = 0; k < factors; k++) {
+            int a = levelIndices[k];
+            int count = levelCounts[k][a];
+            // (c ± 1)² - c² = ±2c + 1
+            squaredCounts[k] += 2L * delta * count + 1;
+            levelCounts[k][a] = count + delta;
+
+            long value = a + 1;
+            columnSums[k] += delta * value;
+            for (int l = k; l < factors; l++) {
+                crossSums[k][l] += delta * value * (levelIndices[l] + 1);
+                if (l > k) {
+                    pairCounts[k][l][a * design[l] + levelIndices[l]] += delta;
+                }
+            }
+        }
+    }
+}
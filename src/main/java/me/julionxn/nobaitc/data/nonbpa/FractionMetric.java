@@ -0,0 +1,38 @@
+package me.julionxn.nobaitc.data.nonbpa;
+
+import java.util.Comparator;
+
+/**
+ * Métrica con la que se ordenan las fracciones. En todas, un valor menor es mejor.
+ */
+public enum FractionMetric {
+    GBM("GBM"),
+    J2("J2"),
+    MAX_VIF("Max VIF");
+
+    private final String label;
+
+    FractionMetric(String label) {
+        this.label = label;
+    }
+
+    public double of(FractionScore score) {
+        return switch (this) {
+            case GBM -> score.gbm();
+            case J2 -> score.j2();
+            case MAX_VIF -> score.maxVif();
+        };
+    }
+
+    /**
+     * Ordena de mejor a peor; los NaN quedan al final y los empates se resuelven por el inicio
+     */
+    public Comparator<FractionScore> comparator() {
+        return Comparator.comparingDouble(this::of).thenComparingLong(FractionScore::start);
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -0,0 +1,49 @@
+package me.julionxn.nobaitc.data.nonbpa;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Evento de JDK Flight Recorder emitido por cada rango de fracciones evaluado con métricas activas.
+ */
+@Name("me.julionxn.nobaitc.FractionRange")
+@Label("Rango de fracciones NONBPA")
+@Category({"NOBAITC", "Generación"})
+@Description("Tiempo por etapa y memoria asignada al evaluar un rango de fracciones")
+@StackTrace(false)
+class FractionRangeEvent extends jdk.jfr.Event {
+
+    @Label("Diseño")
+    String design;
+
+    @Label("Tamaño de fracción")
+    int fractionSize;
+
+    @Label("Fracciones")
+    int fractions;
+
+    @Label("Extracción")
+    @Timespan(Timespan.NANOSECONDS)
+    long extractionNanos;
+
+    @Label("GBM")
+    @Timespan(Timespan.NANOSECONDS)
+    long gbmNanos;
+
+    @Label("J2")
+    @Timespan(Timespan.NANOSECONDS)
+    long j2Nanos;
+
+    @Label("VIF")
+    @Timespan(Timespan.NANOSECONDS)
+    long vifNanos;
+
+    @Label("Memoria asignada")
+    @DataAmount(DataAmount.BYTES)
+    long allocatedBytes;
+}
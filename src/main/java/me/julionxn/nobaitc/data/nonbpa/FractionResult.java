@@ -5,16 +5,19 @@ import me.julionxn.nobaitc.util.FormatHelper;
 
 public class FractionResult {
     private final IntegerProperty fractionNumber;
+    private final long start;
     private final StringProperty fractionData;
     private final StringProperty vifsData;
     private final DoubleProperty gbm;
     private final DoubleProperty j2;
     private final double[] vifs;
-    private final double[][] fraction; // Datos completos de la fracción
+    private final LevelMatrix fraction; // Datos completos de la fracción
 
-    public FractionResult(int fractionNumber, double gbm, double j2, double[] vifs, double[][] fraction) {
+    public FractionResult(int fractionNumber, long start, double gbm, double j2, double[] vifs, LevelMatrix fraction) {
         this.fractionNumber = new SimpleIntegerProperty(fractionNumber);
-        this.fractionData = new SimpleStringProperty(FormatHelper.formatMatrix(fraction));
+        this.start = start;
+        // Sólo se convierten las filas que se muestran (formatMatrix muestra 3 y agrega "..." si hay más)
+        this.fractionData = new SimpleStringProperty(FormatHelper.formatMatrix(fraction.head(4)));
         this.vifsData = new SimpleStringProperty(FormatHelper.formatVector(vifs));
         this.gbm = new SimpleDoubleProperty(gbm);
         this.j2 = new SimpleDoubleProperty(j2);
@@ -31,6 +34,13 @@ public class FractionResult {
         return fractionNumber;
     }
 
+    /**
+     * @return inicio de la fracción dentro de la matriz reflejo (1..TR)
+     */
+    public long getStart() {
+        return start;
+    }
+
     public String getFractionData() {
         return fractionData.get();
     }
@@ -63,7 +73,14 @@ public class FractionResult {
         return j2;
     }
 
+    /**
+     * @return la fracción convertida a double; se genera una copia en cada llamada
+     */
     public double[][] getFraction() {
+        return fraction.toMatrix();
+    }
+
+    public LevelMatrix getLevels() {
         return fraction;
     }
 
@@ -0,0 +1,31 @@
+package me.julionxn.nobaitc.data.nonbpa;
+
+/**
+ * Métricas de una fracción sin la copia de sus datos.
+ * Sirve para comparar muchas fracciones y materializar sólo las que se conservan.
+ * @param start inicio de la fracción (1..TR)
+ * @param gbm parámetro GBM
+ * @param j2 parámetro J2
+ * @param vifs VIF de cada factor
+ */
+public record FractionScore(long start, double gbm, double j2, double[] vifs) {
+
+    /**
+     * @return el mayor VIF, o NaN si alguno no se pudo calcular
+     */
+    public double maxVif() {
+        return maxVif(vifs);
+    }
+
+    /**
+     * @return el mayor de los VIFs dados, o NaN si alguno no se pudo calcular
+     */
+    public static double maxVif(double[] vifs) {
+        double max = Double.NEGATIVE_INFINITY;
+        for (double vif : vifs) {
+            if (Double.isNaN(vif)) return Double.NaN;
+            if (vif > max) max = vif;
+        }
+        return max;
+    }
+}
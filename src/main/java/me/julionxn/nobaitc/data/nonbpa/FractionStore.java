@@ -0,0 +1,358 @@
+package me.julionxn.nobaitc.data.nonbpa;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Métricas de fracciones guardadas en disco por un {@link FractionStoreWriter} y leídas con mapeo a memoria.
+ * Abrir el archivo sólo lee el encabezado y mapea los bloques; los datos los carga el sistema operativo
+ * conforme se consultan, así que un archivo con decenas de millones de fracciones se abre al instante y
+ * no ocupa el heap.
+ * <p>
+ * Formato (little-endian): un encabezado y después bloques de blockRows filas, el último posiblemente
+ * incompleto. Cada bloque de n filas guarda sus columnas una tras otra: n inicios (long), n GBM, n J2,
+ * n VIF por cada factor (double) y, si se guardaron, n × fractionSize × factores niveles (byte), fila por fila.
+ * <pre>
+ * 0  magic "NBPAFRAC"   8  versión      12 factores   16 tamaño de fracción
+ * 20 banderas           24 blockRows    28 reservado  32 número de fracciones (long, -1 si el escritor no se cerró)
+ * 40 niveles de cada factor (int), con relleno hasta múltiplo de 8
+ * </pre>
+ * Las lecturas son absolutas y no cambian el estado de los buffers, así que varios hilos pueden consultar
+ * el mismo almacén.
+ */
+public final class FractionStore implements AutoCloseable {
+
+    static final byte[] MAGIC = {'N', 'B', 'P', 'A', 'F', 'R', 'A', 'C'};
+    static final int VERSION = 1;
+    static final int FLAG_LEVELS = 1;
+    static final int COUNT_OFFSET = 32;
+    /**
+     * Número de fracciones que el escritor deja en el encabezado hasta que se cierra
+     */
+    static final long UNFINISHED = -1;
+    private static final int DESIGN_OFFSET = 40;
+
+    /**
+     * Filas por bloque si caben en {@link #TARGET_BLOCK_BYTES}
+     */
+    private static final int MAX_BLOCK_ROWS = 1 << 16;
+
+    /**
+     * Tamaño aproximado de un bloque; limita el búfer del escritor y queda muy por debajo
+     * del máximo de 2 GB de un mapeo
+     */
+    private static final long TARGET_BLOCK_BYTES = 64L << 20;
+
+    private final FileChannel channel;
+    private final int[] design;
+    private final int factors;
+    private final int fractionSize;
+    private final boolean levels;
+    private final int blockRows;
+    private final long count;
+    private final MappedByteBuffer[] blocks;
+    private volatile boolean closed;
+
+    private FractionStore(FileChannel channel, int[] design, int fractionSize, boolean levels, int blockRows,
+                          long count, MappedByteBuffer[] blocks) {
+        this.channel = channel;
+        this.design = design;
+        this.factors = design.length;
+        this.fractionSize = fractionSize;
+        this.levels = levels;
+        this.blockRows = blockRows;
+        this.count = count;
+        this.blocks = blocks;
+    }
+
+    /**
+     * Abre un archivo escrito por {@link FractionStoreWriter}
+     * @throws IOException si no se puede leer o no tiene el formato esperado
+     */
+    public static FractionStore open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer fixed = ByteBuffer.allocate(DESIGN_OFFSET).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, fixed, 0);
+            byte[] magic = new byte[MAGIC.length];
+            fixed.get(0, magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("Archivo no válido: " + file + " no es un almacén de fracciones");
+            }
+            int version = fixed.getInt(8);
+            if (version != VERSION) {
+                throw new IOException("Archivo no válido: versión " + version + " no soportada");
+            }
+            int factors = fixed.getInt(12);
+            int fractionSize = fixed.getInt(16);
+            boolean levels = (fixed.getInt(20) & FLAG_LEVELS) != 0;
+            int blockRows = fixed.getInt(24);
+            long count = fixed.getLong(COUNT_OFFSET);
+            if (count == UNFINISHED) {
+                throw new IOException("Archivo no válido: " + file + " no se terminó de escribir (¿no se cerró el escritor?)");
+            }
+            if (factors <= 0 || fractionSize <= 0 || count < 0
+                    || blockRows != blockRows(factors, fractionSize, levels)) {
+                throw new IOException("Archivo no válido: encabezado dañado");
+            }
+
+            ByteBuffer designBytes = ByteBuffer.allocate(Math.multiplyExact(factors, Integer.BYTES))
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, designBytes, DESIGN_OFFSET);
+            int[] design = new int[factors];
+            designBytes.asIntBuffer().get(design);
+
+            long fullBlocks = count / blockRows;
+            int lastRows = (int) (count % blockRows);
+            long expected = blockOffset(fullBlocks, factors, fractionSize, levels, blockRows)
+                    + (lastRows == 0 ? 0 : blockBytes(lastRows, factors, fractionSize, levels));
+            if (channel.size() != expected) {
+                throw new IOException("Archivo no válido: se esperaban " + expected + " bytes y tiene "
+                        + channel.size() + " (¿no se cerró el escritor?)");
+            }
+
+            MappedByteBuffer[] blocks = new MappedByteBuffer[Math.toIntExact(fullBlocks + (lastRows == 0 ? 0 : 1))];
+            for (int b = 0; b < blocks.length; b++) {
+                int rows = b < fullBlocks ? blockRows : lastRows;
+                blocks[b] = channel.map(FileChannel.MapMode.READ_ONLY,
+                        blockOffset(b, factors, fractionSize, levels, blockRows),
+                        blockBytes(rows, factors, fractionSize, levels));
+                blocks[b].order(ByteOrder.LITTLE_ENDIAN);
+            }
+            return new FractionStore(channel, design, fractionSize, levels, blockRows, count, blocks);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // ==================== Formato ====================
+
+    static int headerBytes(int factors) {
+        return (DESIGN_OFFSET + factors * Integer.BYTES + 7) & ~7;
+    }
+
+    /**
+     * Bytes de una fila repartidos entre todas las columnas
+     */
+    private static long rowBytes(int factors, int fractionSize, boolean levels) {
+        return 3L * Long.BYTES + (long) factors * Double.BYTES + (levels ? (long) fractionSize * factors : 0);
+    }
+
+    static int blockRows(int factors, int fractionSize, boolean levels) {
+        long rows = TARGET_BLOCK_BYTES / rowBytes(factors, fractionSize, levels);
+        return (int) Math.max(1, Math.min(MAX_BLOCK_ROWS, rows));
+    }
+
+    static long blockBytes(int rows, int factors, int fractionSize, boolean levels) {
+        return rows * rowBytes(factors, fractionSize, levels);
+    }
+
+    static long blockOffset(long block, int factors, int fractionSize, boolean levels, int blockRows) {
+        return headerBytes(factors) + block * blockBytes(blockRows, factors, fractionSize, levels);
+    }
+
+    // ==================== Consultas ====================
+
+    /**
+     * @return número de fracciones guardadas
+     */
+    public long size() {
+        return count;
+    }
+
+    public int[] design() {
+        return design.clone();
+    }
+
+    public int factors() {
+        return factors;
+    }
+
+    public int fractionSize() {
+        return fractionSize;
+    }
+
+    /**
+     * @return si el archivo guarda los niveles de cada fracción
+     */
+    public boolean hasLevels() {
+        return levels;
+    }
+
+    public long start(long index) {
+        ByteBuffer block = block(index);
+        return block.getLong(row(index) * Long.BYTES);
+    }
+
+    public double gbm(long index) {
+        ByteBuffer block = block(index);
+        return block.getDouble(column(rows(block), 1) + row(index) * Double.BYTES);
+    }
+
+    public double j2(long index) {
+        ByteBuffer block = block(index);
+        return block.getDouble(column(rows(block), 2) + row(index) * Double.BYTES);
+    }
+
+    /**
+     * @return VIF del factor k en la fracción index
+     */
+    public double vif(long index, int k) {
+        Objects.checkIndex(k, factors);
+        ByteBuffer block = block(index);
+        return block.getDouble(column(rows(block), 3 + k) + row(index) * Double.BYTES);
+    }
+
+    public double[] vifs(long index) {
+        ByteBuffer block = block(index);
+        return vifs(block, rows(block), row(index));
+    }
+
+    /**
+     * @return el mayor VIF, o NaN si alguno no se pudo calcular
+     */
+    public double maxVif(long index) {
+        return FractionScore.maxVif(vifs(index));
+    }
+
+    public FractionScore score(long index) {
+        ByteBuffer block = block(index);
+        int rows = rows(block);
+        int row = row(index);
+        return new FractionScore(block.getLong(row * Long.BYTES),
+                block.getDouble(column(rows, 1) + row * Double.BYTES),
+                block.getDouble(column(rows, 2) + row * Double.BYTES),
+                vifs(block, rows, row));
+    }
+
+    /**
+     * Niveles de la fracción index. Si el archivo no los guarda, se calculan a partir del diseño y el inicio.
+     */
+    public LevelMatrix levels(long index) {
+        if (!levels) {
+            return LevelMatrix.of(FractionView.of(design, start(index), fractionSize));
+        }
+        ByteBuffer block = block(index);
+        int cellsPerRow = fractionSize * factors;
+        byte[] cells = new byte[cellsPerRow];
+        block.get(column(rows(block), 3 + factors) + row(index) * cellsPerRow, cells);
+        return LevelMatrix.wrap(cells, fractionSize, factors);
+    }
+
+    /**
+     * Las K mejores fracciones guardadas según una métrica.
+     * Recorre sólo las columnas que hacen falta y materializa una fracción únicamente si entra entre las K.
+     */
+    public List<FractionScore> top(int k, FractionMetric metric) {
+        return top(k, metric, FractionThresholds.NONE);
+    }
+
+    /**
+     * Las K mejores fracciones guardadas que cumplen los umbrales
+     */
+    public List<FractionScore> top(int k, FractionMetric metric, FractionThresholds thresholds) {
+        ensureOpen();
+        TopKCollector collector = new TopKCollector(k, metric);
+        // Se reutiliza en cada fila; sólo se copia para las fracciones que entran al colector
+        double[] vifs = new double[factors];
+        for (ByteBuffer block : blocks) {
+            int rows = rows(block);
+            int gbmColumn = column(rows, 1);
+            int j2Column = column(rows, 2);
+            for (int row = 0; row < rows; row++) {
+                double gbm = block.getDouble(gbmColumn + row * Double.BYTES);
+                if (!thresholds.acceptsGbm(gbm)) continue;
+                double j2 = block.getDouble(j2Column + row * Double.BYTES);
+                if (!thresholds.acceptsJ2(j2)) continue;
+                readVifs(block, rows, row, vifs);
+                double maxVif = FractionScore.maxVif(vifs);
+                if (!thresholds.acceptsVif(maxVif)) continue;
+
+                double value = switch (metric) {
+                    case GBM -> gbm;
+                    case J2 -> j2;
+                    case MAX_VIF -> maxVif;
+                };
+                long start = block.getLong(row * Long.BYTES);
+                if (collector.admits(value, start)) {
+                    collector.offer(new FractionScore(start, gbm, j2, vifs.clone()));
+                }
+            }
+        }
+        return collector.toSortedList();
+    }
+
+    /**
+     * Cierra el archivo. Los mapeos se liberan cuando el recolector descarta los buffers;
+     * después de cerrar, las consultas de fracciones lanzan IllegalStateException.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        Arrays.fill(blocks, null);
+        channel.close();
+    }
+
+    // ==================== Auxiliares ====================
+
+    private ByteBuffer block(long index) {
+        ensureOpen();
+        Objects.checkIndex(index, count);
+        return blocks[(int) (index / blockRows)];
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("El almacén ya se cerró");
+        }
+    }
+
+    private int row(long index) {
+        return (int) (index % blockRows);
+    }
+
+    /**
+     * Filas del bloque, deducidas de su tamaño
+     */
+    private int rows(ByteBuffer block) {
+        return (int) (block.capacity() / rowBytes(factors, fractionSize, levels));
+    }
+
+    /**
+     * Posición donde empieza una columna en un bloque de rows filas: 0 inicios, 1 GBM, 2 J2, 3.. VIFs y 3 + factores niveles
+     */
+    private static int column(int rows, int column) {
+        return rows * column * Double.BYTES;
+    }
+
+    private double[] vifs(ByteBuffer block, int rows, int row) {
+        double[] vifs = new double[factors];
+        readVifs(block, rows, row, vifs);
+        return vifs;
+    }
+
+    private void readVifs(ByteBuffer block, int rows, int row, double[] target) {
+        for (int k = 0; k < factors; k++) {
+            target[k] = block.getDouble(column(rows, 3 + k) + row * Double.BYTES);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer target, long position) throws IOException {
+        while (target.hasRemaining()) {
+            int read = channel.read(target, position + target.position());
+            if (read < 0) {
+                throw new IOException("Archivo no válido: terminó antes del encabezado");
+            }
+        }
+        target.flip();
+    }
+}
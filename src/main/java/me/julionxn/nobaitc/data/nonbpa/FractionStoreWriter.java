@@ -0,0 +1,176 @@
+package me.julionxn.nobaitc.data.nonbpa;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Escribe métricas de fracciones a un archivo columnar que se lee con {@link FractionStore}.
+ * Las fracciones se juntan en bloques de {@link FractionStore#blockRows} filas; cada bloque se escribe
+ * columna por columna (inicios, GBM, J2, un VIF por factor y, opcionalmente, los niveles), así que
+ * la memoria usada es la de un bloque sin importar cuántas fracciones se guarden.
+ * El número de fracciones se escribe en el encabezado al cerrar; hasta entonces queda como
+ * {@link FractionStore#UNFINISHED}, así que un archivo sin cerrar no se puede abrir.
+ * No es seguro para uso concurrente: los resultados del servicio llegan en orden en un solo hilo.
+ */
+public final class FractionStoreWriter implements AutoCloseable {
+
+    private final FileChannel channel;
+    private final int[] design;
+    private final int factors;
+    private final int fractionSize;
+    private final boolean withLevels;
+    private final int blockRows;
+
+    // Columnas del bloque en curso
+    private final long[] starts;
+    private final double[] gbm;
+    private final double[] j2;
+    private final double[][] vifs;
+    private final byte[] levels;
+    private final ByteBuffer buffer;
+
+    private int pending;
+    private long count;
+    private boolean closed;
+
+    /**
+     * Crea el archivo, o lo reemplaza si ya existe
+     * @param design niveles de cada factor
+     * @param fractionSize tamaño de las fracciones
+     * @param withLevels si se guardan también los niveles de cada fracción (fractionSize × factores bytes)
+     */
+    public FractionStoreWriter(Path file, int[] design, int fractionSize, boolean withLevels) throws IOException {
+        if (design.length == 0 || fractionSize <= 0) {
+            throw new IllegalArgumentException("El diseño y el tamaño de fracción deben ser mayores a 0");
+        }
+        if (withLevels) {
+            for (int levels : design) {
+                if (levels > LevelMatrix.MAX_LEVEL) {
+                    throw new IllegalArgumentException("No se pueden guardar niveles mayores a " + LevelMatrix.MAX_LEVEL);
+                }
+            }
+        }
+        this.design = design.clone();
+        this.factors = design.length;
+        this.fractionSize = fractionSize;
+        this.withLevels = withLevels;
+        this.blockRows = FractionStore.blockRows(factors, fractionSize, withLevels);
+
+        this.starts = new long[blockRows];
+        this.gbm = new double[blockRows];
+        this.j2 = new double[blockRows];
+        this.vifs = new double[factors][blockRows];
+        this.levels = withLevels ? new byte[Math.multiplyExact(blockRows, fractionSize * factors)] : null;
+        this.buffer = ByteBuffer.allocateDirect(
+                Math.toIntExact(FractionStore.blockBytes(blockRows, factors, fractionSize, withLevels)))
+                .order(ByteOrder.LITTLE_ENDIAN);
+
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        writeHeader();
+    }
+
+    /**
+     * Agrega una fracción. Si se guardan niveles, se calculan a partir del diseño y el inicio.
+     */
+    public void write(FractionScore score) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("El archivo ya se cerró");
+        }
+        double[] scoreVifs = score.vifs();
+        if (scoreVifs.length != factors) {
+            throw new IllegalArgumentException("La fracción tiene " + scoreVifs.length
+                    + " VIFs y el diseño " + factors + " factores");
+        }
+        starts[pending] = score.start();
+        gbm[pending] = score.gbm();
+        j2[pending] = score.j2();
+        for (int k = 0; k < factors; k++) {
+            vifs[k][pending] = scoreVifs[k];
+        }
+        if (withLevels) {
+            byte[] cells = LevelMatrix.of(FractionView.of(design, score.start(), fractionSize)).cells();
+            System.arraycopy(cells, 0, levels, pending * cells.length, cells.length);
+        }
+        if (++pending == blockRows) {
+            flushBlock();
+        }
+    }
+
+    /**
+     * @return fracciones agregadas hasta ahora
+     */
+    public long count() {
+        return count + pending;
+    }
+
+    /**
+     * Escribe el último bloque (que puede estar incompleto) y el número de fracciones
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try (channel) {
+            flushBlock();
+            ByteBuffer total = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            total.putLong(0, count);
+            writeFully(total, FractionStore.COUNT_OFFSET);
+            channel.force(false);
+        }
+    }
+
+    private void writeHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(FractionStore.headerBytes(factors)).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(FractionStore.MAGIC)
+                .putInt(FractionStore.VERSION)
+                .putInt(factors)
+                .putInt(fractionSize)
+                .putInt(withLevels ? FractionStore.FLAG_LEVELS : 0)
+                .putInt(blockRows)
+                .putInt(0)
+                .putLong(FractionStore.UNFINISHED);
+        for (int levels : design) {
+            header.putInt(levels);
+        }
+        header.clear();
+        writeFully(header, 0);
+    }
+
+    /**
+     * Escribe las columnas del bloque en curso, una tras otra, al final del archivo
+     */
+    private void flushBlock() throws IOException {
+        if (pending == 0) {
+            return;
+        }
+        int n = pending;
+        buffer.clear();
+        for (int i = 0; i < n; i++) buffer.putLong(starts[i]);
+        for (int i = 0; i < n; i++) buffer.putDouble(gbm[i]);
+        for (int i = 0; i < n; i++) buffer.putDouble(j2[i]);
+        for (int k = 0; k < factors; k++) {
+            double[] column = vifs[k];
+            for (int i = 0; i < n; i++) buffer.putDouble(column[i]);
+        }
+        if (withLevels) {
+            buffer.put(levels, 0, n * fractionSize * factors);
+        }
+        buffer.flip();
+        writeFully(buffer, FractionStore.blockOffset(count / blockRows, factors, fractionSize, withLevels, blockRows));
+        count += n;
+        pending = 0;
+    }
+
+    private void writeFully(ByteBuffer source, long position) throws IOException {
+        while (source.hasRemaining()) {
+            position += channel.write(source, position);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package me.julionxn.nobaitc.data.nonbpa;
+
+/**
+ * Umbrales máximos que una fracción debe cumplir para conservarse en una búsqueda.
+ * Un umbral infinito no filtra nada en esa etapa.
+ * @param maxGbm GBM máximo aceptado
+ * @param maxJ2 J2 máximo aceptado
+ * @param maxVif VIF máximo aceptado en cualquier factor; si es finito, las fracciones
+ *               singulares (VIF NaN) también se descartan
+ */
+public record FractionThresholds(double maxGbm, double maxJ2, double maxVif) {
+
+    /**
+     * Sin umbrales: sólo se poda contra la K-ésima mejor fracción
+     */
+    public static final FractionThresholds NONE = new FractionThresholds(
+            Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY);
+
+    public FractionThresholds {
+        if (Double.isNaN(maxGbm) || Double.isNaN(maxJ2) || Double.isNaN(maxVif)) {
+            throw new IllegalArgumentException("Los umbrales no pueden ser NaN");
+        }
+        if (maxGbm < 0 || maxJ2 < 0 || maxVif < 1) {
+            throw new IllegalArgumentException("Umbrales inválidos: GBM y J2 deben ser ≥ 0 y el VIF ≥ 1");
+        }
+    }
+
+    boolean acceptsGbm(double gbm) {
+        return gbm <= maxGbm;
+    }
+
+    boolean acceptsJ2(double j2) {
+        return j2 <= maxJ2;
+    }
+
+    boolean acceptsVif(double maxVifOfFraction) {
+        return maxVif == Double.POSITIVE_INFINITY || maxVifOfFraction <= maxVif;
+    }
+}
@@ -0,0 +1,81 @@
+package me.julionxn.nobaitc.data.nonbpa;
+
+/**
+ * Vista de una fracción sin copiar datos.
+ * La fila r de la matriz reflejo vale (r mod niveles) + 1 en cada factor, así que una fracción
+ * queda determinada por el diseño, su inicio y su tamaño. Sólo se materializa con {@link #toMatrix()}.
+ * El inicio es long: el nivel de cada fila se calcula al vuelo, así que la vista funciona aunque
+ * el diseño tenga más corridas de las que cabrían en un arreglo.
+ */
+public final class FractionView {
+
+    private final int[] design;
+    private final long offset;
+    private final int rows;
+
+    private FractionView(int[] design, long offset, int rows) {
+        this.design = design;
+        this.offset = offset;
+        this.rows = rows;
+    }
+
+    /**
+     * @param design niveles de cada factor
+     * @param start inicio de la fracción (1..TR)
+     * @param rows tamaño de la fracción
+     */
+    public static FractionView of(int[] design, long start, int rows) {
+        return new FractionView(design, start - 1, rows);
+    }
+
+    public long start() {
+        return offset + 1;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int factors() {
+        return design.length;
+    }
+
+    public int levels(int factor) {
+        return design[factor];
+    }
+
+    public int[] design() {
+        return design;
+    }
+
+    /**
+     * @return nivel (1..niveles) del factor en la fila indicada de la fracción
+     */
+    public int level(int row, int factor) {
+        return (int) ((offset + row) % design[factor]) + 1;
+    }
+
+    /**
+     * @return índice (0..niveles-1) del nivel en la primera fila; los siguientes avanzan de uno en uno
+     */
+    public int firstLevelIndex(int factor) {
+        return (int) (offset % design[factor]);
+    }
+
+    /**
+     * Copia la fracción a una matriz
+     */
+    public double[][] toMatrix() {
+        int factors = design.length;
+        double[][] matrix = new double[rows][factors];
+        for (int f = 0; f < factors; f++) {
+            int levels = design[f];
+            int index = (int) (offset % levels);
+            for (int r = 0; r < rows; r++) {
+                matrix[r][f] = index + 1;
+                if (++index == levels) index = 0;
+            }
+        }
+        return matrix;
+    }
+}
@@ -0,0 +1,142 @@
+package me.julionxn.nobaitc.data.nonbpa;
+
+/**
+ * Fracción guardada como niveles enteros en un arreglo plano de bytes, fila por fila.
+ * Cada celda ocupa un byte en lugar de un double, y los cálculos sobre ella son exactos.
+ */
+public final class LevelMatrix {
+
+    /**
+     * Mayor nivel que se puede guardar en una celda
+     */
+    public static final int MAX_LEVEL = 255;
+
+    private final byte[] cells;
+    private final int rows;
+    private final int factors;
+
+    private LevelMatrix(byte[] cells, int rows, int factors) {
+        this.cells = cells;
+        this.rows = rows;
+        this.factors = factors;
+    }
+
+    /**
+     * Materializa una vista de fracción
+     */
+    public static LevelMatrix of(FractionView view) {
+        int rows = view.rows();
+        int factors = view.factors();
+        byte[] cells = new byte[rows * factors];
+        for (int f = 0; f < factors; f++) {
+            int levels = view.levels(f);
+            checkLevel(levels);
+            int index = view.firstLevelIndex(f);
+            for (int r = 0; r < rows; r++) {
+                cells[r * factors + f] = (byte) (index + 1);
+                if (++index == levels) index = 0;
+            }
+        }
+        return new LevelMatrix(cells, rows, factors);
+    }
+
+    /**
+     * Materializa filas sueltas de la matriz reflejo, en el orden dado
+     * @param design niveles de cada factor
+     * @param rows número de cada fila (1..TR); la fila r vale ((r - 1) mod niveles) + 1
+     */
+    public static LevelMatrix ofRows(int[] design, long[] rows) {
+        int factors = design.length;
+        byte[] cells = new byte[rows.length * factors];
+        for (int f = 0; f < factors; f++) {
+            checkLevel(design[f]);
+        }
+        for (int r = 0; r < rows.length; r++) {
+            for (int f = 0; f < factors; f++) {
+                cells[r * factors + f] = (byte) ((rows[r] - 1) % design[f] + 1);
+            }
+        }
+        return new LevelMatrix(cells, rows.length, factors);
+    }
+
+    /**
+     * Convierte una matriz de niveles en double a la representación compacta
+     */
+    public static LevelMatrix of(double[][] fraction) {
+        int rows = fraction.length;
+        int factors = fraction[0].length;
+        byte[] cells = new byte[rows * factors];
+        for (int r = 0; r < rows; r++) {
+            for (int f = 0; f < factors; f++) {
+                double value = fraction[r][f];
+                int level = (int) value;
+                if (level != value) {
+                    throw new IllegalArgumentException("El nivel " + value + " no es entero");
+                }
+                checkLevel(level);
+                cells[r * factors + f] = (byte) level;
+            }
+        }
+        return new LevelMatrix(cells, rows, factors);
+    }
+
+    /**
+     * Envuelve celdas ya validadas (por ejemplo, las leídas de un {@link FractionStore}) sin copiarlas
+     */
+    static LevelMatrix wrap(byte[] cells, int rows, int factors) {
+        return new LevelMatrix(cells, rows, factors);
+    }
+
+    private static void checkLevel(int level) {
+        if (level < 1 || level > MAX_LEVEL) {
+            throw new IllegalArgumentException("Nivel fuera de rango (1-" + MAX_LEVEL + "): " + level);
+        }
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int factors() {
+        return factors;
+    }
+
+    /**
+     * @return nivel (1..MAX_LEVEL) de la celda
+     */
+    public int get(int row, int factor) {
+        return cells[row * factors + factor] & 0xFF;
+    }
+
+    /**
+     * Acceso directo a las celdas para los kernels; no se debe modificar
+     */
+    byte[] cells() {
+        return cells;
+    }
+
+    public double[][] toMatrix() {
+        double[][] matrix = new double[rows][factors];
+        for (int r = 0; r < rows; r++) {
+            int base = r * factors;
+            for (int f = 0; f < factors; f++) {
+                matrix[r][f] = cells[base + f] & 0xFF;
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * Copia las primeras filas como double, sin convertir toda la fracción
+     */
+    public double[][] head(int maxRows) {
+        int count = Math.min(maxRows, rows);
+        double[][] matrix = new double[count][factors];
+        for (int r = 0; r < count; r++) {
+            for (int f = 0; f < factors; f++) {
+                matrix[r][f] = cells[r * factors + f] & 0xFF;
+            }
+        }
+        return matrix;
+    }
+}
@@ -1,24 +1,99 @@
 package me.julionxn.nobaitc.data.nonbpa;
 
 import me.julionxn.nobaitc.data.MatlabFunctions;
+import me.julionxn.nobaitc.data.SeededSampler;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.LongConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * Servicio para generar fracciones NONBPA
  */
 public class NONBPAGeneratorService {
 
-    private final BalancedGBMMatrix gbmCalculator;
-    private final OrthogonalJ2Matrix j2Calculator;
+    /**
+     * Número de fracciones por debajo del cual no vale la pena dividir el trabajo
+     */
+    private static final int PARALLEL_GRAIN = 16;
+
+    /**
+     * Inicios por hoja al recorrer todo el diseño. Cada hoja reconstruye su ventana deslizante,
+     * así que conviene que sea bastante más larga que una fracción.
+     */
+    private static final int SCAN_GRAIN = 512;
+
+    /**
+     * Fracciones que se evalúan a la vez antes de entregarlas a un consumidor
+     */
+    private static final int STREAM_BATCH = 256;
+
+    /**
+     * Inicios por lote al buscar el frente de Pareto; entre lotes se revisa la cancelación y se reporta el avance
+     */
+    private static final int PARETO_BATCH = 64 * SCAN_GRAIN;
+
+    /**
+     * Memoria estimada máxima de la caché de diseños preparados
+     */
+    public static final long DEFAULT_CACHE_BYTES = 16L * 1024 * 1024;
+
     private final VIFSMatrix vifsCalculator;
+    private final ForkJoinPool pool;
+    private final DesignCache designCache;
+    private final PipelineMetrics metrics;
 
     public NONBPAGeneratorService() {
-        this.gbmCalculator = new BalancedGBMMatrix();
-        this.j2Calculator = new OrthogonalJ2Matrix();
+        this(null);
+    }
+
+    /**
+     * @param pool pool en el que se evalúan las fracciones en paralelo, o null para evaluarlas en el hilo actual
+     */
+    public NONBPAGeneratorService(ForkJoinPool pool) {
+        this(pool, new DesignCache(DEFAULT_CACHE_BYTES));
+    }
+
+    /**
+     * @param pool pool en el que se evalúan las fracciones en paralelo, o null para evaluarlas en el hilo actual
+     * @param designCache caché de diseños preparados; puede compartirse entre servicios
+     */
+    public NONBPAGeneratorService(ForkJoinPool pool, DesignCache designCache) {
+        this(pool, designCache, PipelineMetrics.DISABLED);
+    }
+
+    /**
+     * @param pool pool en el que se evalúan las fracciones en paralelo, o null para evaluarlas en el hilo actual
+     * @param designCache caché de diseños preparados; puede compartirse entre servicios
+     * @param metrics instrumentación por etapa; PipelineMetrics.DISABLED para no medir
+     */
+    public NONBPAGeneratorService(ForkJoinPool pool, DesignCache designCache, PipelineMetrics metrics) {
         this.vifsCalculator = new VIFSMatrix();
+        this.pool = pool;
+        this.designCache = designCache;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Crea un servicio que evalúa en paralelo usando el pool común
+     */
+    public static NONBPAGeneratorService parallel() {
+        return new NONBPAGeneratorService(ForkJoinPool.commonPool());
+    }
+
+    public boolean isParallel() {
+        return pool != null;
     }
 
     /**
@@ -29,19 +104,27 @@ public class NONBPAGeneratorService {
             return false;
         }
 
-        int tr = calculateProduct(design);
-        int lcm = MatlabFunctions.calculateLCM(design);
+        long tr;
+        try {
+            tr = calculateProduct(design);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        // LCM ≤ TR, así que si TR cabe en long el LCM también
+        long lcm = MatlabFunctions.calculateLCM(design);
 
         return tr == lcm;
     }
 
     /**
-     * Calcula parámetros del diseño
+     * Calcula parámetros del diseño.
+     * TR y LCM son long: con factores de niveles coprimos TR crece muy rápido, y como las filas se
+     * calculan al vuelo (FractionView) nunca hace falta construir la matriz de efectos principales.
      */
     public DesignParameters calculateParameters(int[] design) {
-        int tr = calculateProduct(design);
+        long tr = calculateProduct(design);
         int factors = design.length;
-        int lcm = MatlabFunctions.calculateLCM(design);
+        long lcm = MatlabFunctions.calculateLCM(design);
         int gl = factors + 2;
         int maxLevel = Arrays.stream(design).max().orElse(0);
         int sfMin = Math.max(gl, maxLevel);
@@ -61,151 +144,796 @@ public class NONBPAGeneratorService {
      * Genera fracciones aleatorias
      */
     public List<FractionResult> generateRandomFractions(int[] design, int fractionSize, int numberOfFractions) {
-        validateInputs(design, fractionSize, numberOfFractions);
+        return generateRandomFractions(design, fractionSize, numberOfFractions, SeededSampler.unseeded().seed());
+    }
 
-        DesignParameters params = calculateParameters(design);
-        double[][] reflexMatrix = buildReflexMatrix(design, fractionSize);
-        int[] randomStarts = MatlabFunctions.nonRepeatableRandomNumbers(1, params.tr(), numberOfFractions);
+    /**
+     * Genera fracciones aleatorias reproducibles: la misma semilla da los mismos inicios,
+     * en el mismo orden, sin importar el número de hilos del pool
+     */
+    public List<FractionResult> generateRandomFractions(int[] design, int fractionSize, int numberOfFractions,
+                                                        long seed) {
+        PreparedDesign prepared = validateInputs(design, fractionSize, numberOfFractions);
+        long[] randomStarts = randomStarts(prepared, numberOfFractions, seed);
 
-        return generateFractionsFromStarts(design, fractionSize, reflexMatrix, randomStarts);
+        return generateFractionsFromStarts(prepared, randomStarts);
     }
 
     /**
      * Genera fracciones personalizadas
      */
-    public List<FractionResult> generateCustomFractions(int[] design, int fractionSize, List<Integer> customStarts) {
-        if (!validateDesign(design)) {
-            throw new IllegalArgumentException("Diseño no válido para NONBPA");
+    public List<FractionResult> generateCustomFractions(int[] design, int fractionSize, List<Long> customStarts) {
+        PreparedDesign prepared = prepare(design, fractionSize);
+        validateCustomStarts(customStarts, prepared.parameters().tr());
+
+        long[] customArray = customStarts.stream().mapToLong(Long::longValue).toArray();
+
+        return generateFractionsFromStarts(prepared, customArray);
+    }
+
+    /**
+     * Igual que generateRandomFractions, pero las fracciones se evalúan conforme se consumen.
+     * El stream es secuencial y ordenado; se puede hacer paralelo con parallel().
+     */
+    public Stream<FractionResult> streamRandomFractions(int[] design, int fractionSize, int numberOfFractions) {
+        return streamRandomFractions(design, fractionSize, numberOfFractions, SeededSampler.unseeded().seed());
+    }
+
+    /**
+     * Igual que streamRandomFractions, con inicios reproducibles a partir de la semilla
+     */
+    public Stream<FractionResult> streamRandomFractions(int[] design, int fractionSize, int numberOfFractions,
+                                                        long seed) {
+        PreparedDesign prepared = validateInputs(design, fractionSize, numberOfFractions);
+        long[] randomStarts = randomStarts(prepared, numberOfFractions, seed);
+
+        return streamFromStarts(prepared, randomStarts);
+    }
+
+    /**
+     * Igual que generateCustomFractions, pero las fracciones se evalúan conforme se consumen
+     */
+    public Stream<FractionResult> streamCustomFractions(int[] design, int fractionSize, List<Long> customStarts) {
+        PreparedDesign prepared = prepare(design, fractionSize);
+        validateCustomStarts(customStarts, prepared.parameters().tr());
+        long[] customArray = customStarts.stream().mapToLong(Long::longValue).toArray();
+
+        return streamFromStarts(prepared, customArray);
+    }
+
+    /**
+     * Genera fracciones aleatorias y las entrega en orden al consumidor.
+     * Se evalúan por lotes (en paralelo si el servicio tiene pool), así que sólo un lote vive en memoria.
+     * Si el hilo que llama se interrumpe, se detiene antes del siguiente lote con CancellationException.
+     */
+    public void generateRandomFractions(int[] design, int fractionSize, int numberOfFractions,
+                                        Consumer<? super FractionResult> sink) {
+        generateRandomFractions(design, fractionSize, numberOfFractions, SeededSampler.unseeded().seed(), sink);
+    }
+
+    /**
+     * Igual que generateRandomFractions con consumidor, con inicios reproducibles a partir de la semilla
+     */
+    public void generateRandomFractions(int[] design, int fractionSize, int numberOfFractions, long seed,
+                                        Consumer<? super FractionResult> sink) {
+        PreparedDesign prepared = validateInputs(design, fractionSize, numberOfFractions);
+        long[] randomStarts = randomStarts(prepared, numberOfFractions, seed);
+
+        pushFromStarts(prepared, randomStarts, FractionResult[]::new, this::evaluateFraction, sink);
+    }
+
+    /**
+     * Genera fracciones personalizadas y las entrega en orden al consumidor, por lotes
+     */
+    public void generateCustomFractions(int[] design, int fractionSize, List<Long> customStarts,
+                                        Consumer<? super FractionResult> sink) {
+        PreparedDesign prepared = prepare(design, fractionSize);
+        validateCustomStarts(customStarts, prepared.parameters().tr());
+        long[] customArray = customStarts.stream().mapToLong(Long::longValue).toArray();
+
+        pushFromStarts(prepared, customArray, FractionResult[]::new, this::evaluateFraction, sink);
+    }
+
+    /**
+     * Igual que generateRandomFractions con consumidor, pero sólo entrega las métricas de cada fracción:
+     * no se copia la fracción ni se crea el FractionResult, cuyas propiedades requieren JavaFX.
+     * Las fracciones singulares llegan con VIFs NaN. Pensado para corridas sin interfaz gráfica.
+     */
+    public void scoreRandomFractions(int[] design, int fractionSize, int numberOfFractions, long seed,
+                                     Consumer<? super FractionScore> sink) {
+        PreparedDesign prepared = validateInputs(design, fractionSize, numberOfFractions);
+        long[] randomStarts = randomStarts(prepared, numberOfFractions, seed);
+
+        pushFromStarts(prepared, randomStarts, FractionScore[]::new, this::evaluateScore, sink);
+    }
+
+    /**
+     * Igual que scoreRandomFractions, para inicios personalizados
+     */
+    public void scoreCustomFractions(int[] design, int fractionSize, List<Long> customStarts,
+                                     Consumer<? super FractionScore> sink) {
+        PreparedDesign prepared = prepare(design, fractionSize);
+        validateCustomStarts(customStarts, prepared.parameters().tr());
+        long[] customArray = customStarts.stream().mapToLong(Long::longValue).toArray();
+
+        pushFromStarts(prepared, customArray, FractionScore[]::new, this::evaluateScore, sink);
+    }
+
+    /**
+     * Igual que scanTopFractions por etapas, pero devuelve sólo las métricas de las K mejores,
+     * de mejor a peor, sin materializarlas
+     */
+    public List<FractionScore> scanTopScores(int[] design, int fractionSize, int topK, FractionMetric metric,
+                                             FractionThresholds thresholds) {
+        PreparedDesign prepared = validateInputs(design, fractionSize, topK);
+        return scanTop(prepared, topK, metric, thresholds).collector().toSortedList();
+    }
+
+    /**
+     * Evalúa todos los inicios [1, TR] y conserva las K mejores fracciones según la métrica.
+     * Sólo se guardan K métricas a la vez, y únicamente las fracciones finales se materializan.
+     * @param topK número de fracciones a conservar
+     * @param metric métrica con la que se ordenan (menor es mejor)
+     * @return las K mejores fracciones, numeradas de mejor a peor
+     */
+    public List<FractionResult> scanTopFractions(int[] design, int fractionSize, int topK, FractionMetric metric) {
+        return scanTopFractions(design, fractionSize, topK, metric, FractionThresholds.NONE).fractions();
+    }
+
+    /**
+     * Igual que scanTopFractions, pero cada fracción se evalúa por etapas (GBM, J2, VIFs) y se descarta
+     * en cuanto no cumple un umbral o ya no puede entrar entre las K mejores, sin pagar los VIFs.
+     * @param thresholds umbrales máximos por métrica; FractionThresholds.NONE para no filtrar
+     * @return las K mejores fracciones que cumplen los umbrales y cuántas se podaron en cada etapa
+     */
+    public StagedScan scanTopFractions(int[] design, int fractionSize, int topK, FractionMetric metric,
+                                       FractionThresholds thresholds) {
+        PreparedDesign prepared = validateInputs(design, fractionSize, topK);
+        StagedFractionFilter filter = scanTop(prepared, topK, metric, thresholds);
+
+        List<FractionScore> best = filter.collector().toSortedList();
+        List<FractionResult> results = new ArrayList<>(best.size());
+        for (int i = 0; i < best.size(); i++) {
+            FractionScore score = best.get(i);
+            LevelMatrix fraction = LevelMatrix.of(FractionView.of(prepared.design(), score.start(), fractionSize));
+            results.add(new FractionResult(i + 1, score.start(), score.gbm(), score.j2(), score.vifs(), fraction));
         }
 
-        if (!validateFractionSize(design, fractionSize)) {
-            throw new IllegalArgumentException("Tamaño de fracción no válido");
+        return new StagedScan(results, filter.stats());
+    }
+
+    /**
+     * Evalúa todos los inicios [1, TR] y conserva el frente de Pareto en GBM, J2 y Max VIF:
+     * las fracciones que ninguna otra mejora en las tres métricas a la vez.
+     * El frente se mantiene de forma incremental con un {@link ParetoArchive} por hilo.
+     * @return las fracciones no dominadas, ordenadas por GBM, luego J2, luego Max VIF
+     */
+    public List<FractionResult> scanParetoFront(int[] design, int fractionSize) {
+        return scanParetoFront(design, fractionSize, evaluated -> {});
+    }
+
+    /**
+     * Igual que scanParetoFront, pero recorre los inicios por lotes de PARETO_BATCH.
+     * Tras cada lote entrega al consumidor cuántos inicios lleva evaluados (de TR); si el hilo
+     * que llama se interrumpe, se detiene antes del siguiente lote con CancellationException.
+     */
+    public List<FractionResult> scanParetoFront(int[] design, int fractionSize, LongConsumer progress) {
+        PreparedDesign prepared = validateInputs(design, fractionSize, 1);
+        long tr = prepared.parameters().tr();
+
+        ParetoArchive archive = new ParetoArchive();
+        for (long from = 1; from <= tr; from += PARETO_BATCH) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("Generación cancelada");
+            }
+            long to = Math.min(from + PARETO_BATCH, tr + 1);
+            ParetoArchive batch;
+            if (pool == null || to - from <= SCAN_GRAIN) {
+                batch = paretoRange(prepared, from, to);
+            } else {
+                batch = pool.invoke(new ParetoScanTask(prepared, from, to));
+            }
+            archive.merge(batch);
+            progress.accept(to - 1);
         }
 
-        DesignParameters params = calculateParameters(design);
-        validateCustomStarts(customStarts, params.tr());
+        List<FractionScore> front = archive.toSortedList();
+        List<FractionResult> results = new ArrayList<>(front.size());
+        for (int i = 0; i < front.size(); i++) {
+            FractionScore score = front.get(i);
+            LevelMatrix fraction = LevelMatrix.of(FractionView.of(prepared.design(), score.start(), fractionSize));
+            results.add(new FractionResult(i + 1, score.start(), score.gbm(), score.j2(), score.vifs(), fraction));
+        }
 
-        double[][] reflexMatrix = buildReflexMatrix(design, fractionSize);
-        int[] customArray = customStarts.stream().mapToInt(Integer::intValue).toArray();
+        return results;
+    }
 
-        return generateFractionsFromStarts(design, fractionSize, reflexMatrix, customArray);
+    /**
+     * Busca fracciones entre subconjuntos arbitrarios de filas, no sólo ventanas contiguas,
+     * con recocido simulado por intercambio de filas. Los reinicios son independientes y
+     * se reparten entre los hilos del pool; cada uno usa su propio subflujo de la semilla.
+     * @param settings pesos del objetivo, número de reinicios y límites de iteraciones o tiempo
+     * @return la mejor fracción de cada reinicio, sin repetidas, de menor a mayor objetivo
+     */
+    public List<OptimizedFraction> optimizeFractions(int[] design, int fractionSize, AnnealingSettings settings) {
+        PreparedDesign prepared = prepare(design, fractionSize);
+        OptimizedFraction[] best = new OptimizedFraction[settings.restarts()];
+
+        if (pool == null || best.length == 1) {
+            annealRange(prepared, settings, best, 0, best.length);
+        } else {
+            pool.invoke(new AnnealingTask(prepared, settings, best, 0, best.length));
+        }
+
+        List<OptimizedFraction> results = new ArrayList<>(best.length);
+        Arrays.sort(best, Comparator.comparingDouble(OptimizedFraction::objective));
+        for (OptimizedFraction candidate : best) {
+            boolean repeated = results.stream().anyMatch(kept -> Arrays.equals(kept.rows(), candidate.rows()));
+            if (!repeated) {
+                results.add(candidate);
+            }
+        }
+        return results;
     }
 
-    private void validateInputs(int[] design, int fractionSize, int numberOfFractions) {
-        if (!validateDesign(design)) {
-            throw new IllegalArgumentException("Diseño no válido para NONBPA");
+    /**
+     * Barre una rejilla de diseños por tamaños de fracción, de SF min hasta maxFractionSize (o TR - 1).
+     * Cada celda recorre todos sus inicios y se resume en la mejor fracción por GBM, J2 y Max VIF.
+     * Las celdas se reparten entre los hilos del pool de la más cara a la más barata, para que una
+     * celda grande no quede sola al final; cada resumen se entrega al consumidor en cuanto su celda
+     * termina, de un hilo a la vez.
+     * @param designs diseños a barrer; todos deben ser válidos para NONBPA
+     * @param maxFractionSize mayor tamaño de fracción a evaluar en cada diseño
+     * @param sink recibe cada resumen en orden de terminación
+     * @return los resúmenes en el orden de la rejilla: por diseño y luego por tamaño
+     */
+    public List<SweepSummary> sweepDesigns(List<int[]> designs, int maxFractionSize,
+                                           Consumer<? super SweepSummary> sink) {
+        List<PreparedDesign> cells = new ArrayList<>();
+        for (int[] design : designs) {
+            if (!validateDesign(design)) {
+                throw new IllegalArgumentException("Diseño no válido para NONBPA: " + Arrays.toString(design));
+            }
+            DesignParameters params = calculateParameters(design);
+            long upper = Math.min(maxFractionSize, params.tr() - 1);
+            for (int size = params.sfMin(); size <= upper; size++) {
+                cells.add(prepare(design, size));
+            }
         }
 
-        if (!validateFractionSize(design, fractionSize)) {
-            throw new IllegalArgumentException("Tamaño de fracción no válido");
+        PreparedDesign[] grid = cells.toArray(new PreparedDesign[0]);
+        int[] schedule = IntStream.range(0, grid.length).boxed()
+                .sorted(Comparator.comparingDouble((Integer i) -> sweepCost(grid[i])).reversed())
+                .mapToInt(Integer::intValue)
+                .toArray();
+        SweepSummary[] results = new SweepSummary[grid.length];
+        AtomicInteger next = new AtomicInteger();
+        // Candado propio: sincronizar sobre sink bloquearía a los hilos si quien llama ya tiene su monitor
+        Object deliveryLock = new Object();
+        Consumer<SweepSummary> deliver = summary -> {
+            synchronized (deliveryLock) {
+                sink.accept(summary);
+            }
+        };
+
+        if (pool == null || grid.length <= 1) {
+            sweepWorker(grid, schedule, next, results, deliver);
+        } else {
+            int workers = Math.min(pool.getParallelism(), grid.length);
+            List<SweepTask> tasks = new ArrayList<>(workers);
+            for (int i = 0; i < workers; i++) {
+                SweepTask task = new SweepTask(grid, schedule, next, results, deliver);
+                pool.execute(task);
+                tasks.add(task);
+            }
+            for (SweepTask task : tasks) {
+                task.join();
+            }
         }
 
-        DesignParameters params = calculateParameters(design);
+        return new ArrayList<>(Arrays.asList(results));
+    }
+
+    /**
+     * @return estadísticas de la caché de diseños preparados
+     */
+    public DesignCache.Stats getCacheStats() {
+        return designCache.stats();
+    }
+
+    public void clearCache() {
+        designCache.clear();
+    }
+
+    /**
+     * @return instrumentación de la generación; consultar con getMetrics().snapshot()
+     */
+    public PipelineMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Valida el diseño y el tamaño de fracción y devuelve sus datos preparados.
+     * Las combinaciones ya validadas se toman de la caché.
+     */
+    private PreparedDesign prepare(int[] design, int fractionSize) {
+        if (design == null) {
+            throw new IllegalArgumentException("Diseño no válido para NONBPA");
+        }
+        return designCache.get(design, fractionSize, () -> {
+            if (!validateDesign(design)) {
+                throw new IllegalArgumentException("Diseño no válido para NONBPA");
+            }
+
+            if (!validateFractionSize(design, fractionSize)) {
+                throw new IllegalArgumentException("Tamaño de fracción no válido");
+            }
+
+            return new PreparedDesign(design, fractionSize, calculateParameters(design));
+        });
+    }
+
+    private PreparedDesign validateInputs(int[] design, int fractionSize, int numberOfFractions) {
+        PreparedDesign prepared = prepare(design, fractionSize);
+
+        DesignParameters params = prepared.parameters();
         if (numberOfFractions <= 0 || numberOfFractions > params.tr()) {
             throw new IllegalArgumentException("Número de fracciones no válido (1-" + params.tr() + ")");
         }
+
+        return prepared;
     }
 
-    private void validateCustomStarts(List<Integer> customStarts, int maxValue) {
-        for (int start : customStarts) {
+    /**
+     * Los inicios se sortean completos antes de repartir la evaluación entre hilos,
+     * por eso dependen sólo de la semilla
+     */
+    private long[] randomStarts(PreparedDesign prepared, int numberOfFractions, long seed) {
+        return new SeededSampler(seed).sample(1, prepared.parameters().tr(), numberOfFractions);
+    }
+
+    private void validateCustomStarts(List<Long> customStarts, long maxValue) {
+        for (long start : customStarts) {
             if (start < 1 || start > maxValue) {
                 throw new IllegalArgumentException("Fracción " + start + " fuera del rango válido (1-" + maxValue + ")");
             }
         }
     }
 
-    private double[][] buildReflexMatrix(int[] design, int fractionSize) {
-        double[][] mainMatrix = generateMainEffectsMatrix(design);
-        return createReflexMatrix(mainMatrix, fractionSize);
+    private List<FractionResult> generateFractionsFromStarts(PreparedDesign prepared, long[] starts) {
+        FractionResult[] results = new FractionResult[starts.length];
+
+        if (pool == null || starts.length <= PARALLEL_GRAIN) {
+            evaluateRange(prepared, starts, results, 0, starts.length, 0, this::evaluateFraction);
+        } else {
+            pool.invoke(new FractionEvaluationTask<>(prepared, starts, results, 0, starts.length, 0,
+                    this::evaluateFraction));
+        }
+
+        return new ArrayList<>(Arrays.asList(results));
+    }
+
+    private Stream<FractionResult> streamFromStarts(PreparedDesign prepared, long[] starts) {
+        return IntStream.range(0, starts.length)
+                .mapToObj(i -> {
+                    try (PipelineMetrics.StageClock clock = metrics.begin(prepared.design(), prepared.fractionSize())) {
+                        return evaluateFraction(prepared, starts[i], i + 1, clock);
+                    }
+                });
     }
 
     /**
-     * Genera la matriz de efectos principales
+     * Evalúa los inicios por lotes y entrega cada resultado en orden al consumidor
+     * @param newBatch crea el arreglo del lote
+     * @param evaluation produce el resultado de cada fracción
      */
-    private double[][] generateMainEffectsMatrix(int[] design) {
-        int tr = calculateProduct(design);
-        int factors = design.length;
-        double[][] matrix = new double[tr][factors];
+    private <T> void pushFromStarts(PreparedDesign prepared, long[] starts, IntFunction<T[]> newBatch,
+                                    FractionEvaluation<T> evaluation, Consumer<? super T> sink) {
+        T[] batch = newBatch.apply(Math.min(STREAM_BATCH, starts.length));
 
-        for (int f = 0; f < factors; f++) {
-            fillFactorColumn(matrix, f, design[f], tr);
+        for (int from = 0; from < starts.length; from += batch.length) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("Generación cancelada");
+            }
+            int to = Math.min(from + batch.length, starts.length);
+            if (pool == null || to - from <= PARALLEL_GRAIN) {
+                evaluateRange(prepared, starts, batch, from, to, from, evaluation);
+            } else {
+                pool.invoke(new FractionEvaluationTask<>(prepared, starts, batch, from, to, from, evaluation));
+            }
+            for (int i = 0; i < to - from; i++) {
+                sink.accept(batch[i]);
+                batch[i] = null;
+            }
         }
+    }
 
-        return matrix;
+    /**
+     * Evalúa las fracciones [from, to) de starts. Cada resultado se guarda en su posición,
+     * por lo que el orden y la numeración no dependen del hilo que lo calculó.
+     * @param resultOffset posición de starts que corresponde a results[0]
+     */
+    private <T> void evaluateRange(PreparedDesign prepared, long[] starts, T[] results,
+                                   int from, int to, int resultOffset, FractionEvaluation<T> evaluation) {
+        try (PipelineMetrics.StageClock clock = metrics.begin(prepared.design(), prepared.fractionSize())) {
+            for (int i = from; i < to; i++) {
+                results[i - resultOffset] = evaluation.evaluate(prepared, starts[i], i + 1, clock);
+            }
+        }
+    }
+
+    private FractionResult evaluateFraction(PreparedDesign prepared, long start, int fractionNumber,
+                                            PipelineMetrics.StageClock clock) {
+        clock.mark();
+        // Las métricas se calculan sobre la vista; sólo se copia la fracción que se devuelve
+        FractionView view = FractionView.of(prepared.design(), start, prepared.fractionSize());
+        LevelMatrix fraction = LevelMatrix.of(view);
+        clock.lap(PipelineMetrics.Stage.EXTRACTION);
+
+        FractionScore score = scoreFraction(prepared, view, clock);
+        clock.fraction();
+
+        return new FractionResult(fractionNumber, start, score.gbm(), score.j2(), score.vifs(), fraction);
+    }
+
+    /**
+     * Como evaluateFraction, pero sin copiar la fracción ni construir el FractionResult.
+     * Una fracción singular queda con VIFs NaN en lugar de detener la corrida.
+     */
+    private FractionScore evaluateScore(PreparedDesign prepared, long start, int fractionNumber,
+                                        PipelineMetrics.StageClock clock) {
+        clock.mark();
+        FractionView view = FractionView.of(prepared.design(), start, prepared.fractionSize());
+        clock.lap(PipelineMetrics.Stage.EXTRACTION);
+
+        double gbm = prepared.gbm(start);
+        clock.lap(PipelineMetrics.Stage.GBM);
+        double j2 = prepared.j2();
+        clock.lap(PipelineMetrics.Stage.J2);
+        double[] vifs = vifsCalculator.calculateOrNaN(view, EvaluationWorkspace.forCurrentThread(view.factors()));
+        clock.lap(PipelineMetrics.Stage.VIF);
+        clock.fraction();
+
+        return new FractionScore(start, gbm, j2, vifs);
     }
 
-    private void fillFactorColumn(double[][] matrix, int col, int levels, int totalRows) {
-        int blockSize = levels;
-        int repeats = totalRows / levels;
+    /**
+     * Recorre todos los inicios [1, TR], en paralelo si el servicio tiene pool
+     */
+    private StagedFractionFilter scanTop(PreparedDesign prepared, int topK, FractionMetric metric,
+                                         FractionThresholds thresholds) {
+        long tr = prepared.parameters().tr();
+        if (pool == null || tr <= SCAN_GRAIN) {
+            return scanRange(prepared, topK, metric, thresholds, 1, tr + 1);
+        }
+        return pool.invoke(new TopKScanTask(prepared, topK, metric, thresholds, 1, tr + 1));
+    }
 
-        for (int repeat = 0; repeat < repeats; repeat++) {
-            int startRow = repeat * blockSize;
-            for (int level = 0; level < levels; level++) {
-                matrix[startRow + level][col] = level + 1;
+    /**
+     * Evalúa los inicios [fromStart, toStart) por etapas y conserva sólo las K mejores
+     */
+    private StagedFractionFilter scanRange(PreparedDesign prepared, int topK, FractionMetric metric,
+                                           FractionThresholds thresholds, long fromStart, long toStart) {
+        StagedFractionFilter filter = new StagedFractionFilter(topK, metric, thresholds);
+        // Los inicios son consecutivos: la ventana se desliza en lugar de recalcular cada fracción
+        SlidingFractionEvaluator evaluator = new SlidingFractionEvaluator(
+                prepared.design(), prepared.fractionSize(), prepared.parameters().tr());
+        try (PipelineMetrics.StageClock clock = metrics.begin(prepared.design(), prepared.fractionSize())) {
+            for (long start = fromStart; start < toStart; start++) {
+                clock.mark();
+                if (start == fromStart) {
+                    evaluator.moveTo(fromStart);
+                } else {
+                    evaluator.advance();
+                }
+                clock.lap(PipelineMetrics.Stage.EXTRACTION);
+                filter.offer(evaluator, clock);
+                clock.fraction();
             }
         }
+        return filter;
     }
 
-    private double[][] createReflexMatrix(double[][] original, int fractionSize) {
-        int originalRows = original.length;
-        int factors = original[0].length;
-        int reflexRows = fractionSize - 1;
-        int totalRows = originalRows + reflexRows;
+    /**
+     * Evalúa los inicios [fromStart, toStart) y conserva sólo las fracciones no dominadas
+     */
+    private ParetoArchive paretoRange(PreparedDesign prepared, long fromStart, long toStart) {
+        ParetoArchive archive = new ParetoArchive();
+        SlidingFractionEvaluator evaluator = new SlidingFractionEvaluator(
+                prepared.design(), prepared.fractionSize(), prepared.parameters().tr());
+        try (PipelineMetrics.StageClock clock = metrics.begin(prepared.design(), prepared.fractionSize())) {
+            for (long start = fromStart; start < toStart; start++) {
+                clock.mark();
+                if (start == fromStart) {
+                    evaluator.moveTo(fromStart);
+                } else {
+                    evaluator.advance();
+                }
+                clock.lap(PipelineMetrics.Stage.EXTRACTION);
+                double gbm = evaluator.gbm();
+                clock.lap(PipelineMetrics.Stage.GBM);
+                double j2 = evaluator.j2();
+                clock.lap(PipelineMetrics.Stage.J2);
+                double[] vifs = evaluator.vifs();
+                clock.lap(PipelineMetrics.Stage.VIF);
+                archive.offer(new FractionScore(start, gbm, j2, vifs));
+                clock.fraction();
+            }
+        }
+        return archive;
+    }
 
-        double[][] reflexMatrix = new double[totalRows][factors];
+    /**
+     * Costo estimado de una celda del barrido: TR inicios, cada uno con una inversión O(factores³)
+     */
+    private static double sweepCost(PreparedDesign cell) {
+        int factors = cell.design().length;
+        return (double) cell.parameters().tr() * (factors * factors * factors + factors * factors)
+                + cell.fractionSize();
+    }
 
-        // Copiar matriz original
-        for (int i = 0; i < originalRows; i++) {
-            System.arraycopy(original[i], 0, reflexMatrix[i], 0, factors);
+    /**
+     * Toma celdas del calendario, de la más cara a la más barata, hasta que no queden.
+     * Cada resumen se guarda en la posición de su celda en la rejilla.
+     */
+    private void sweepWorker(PreparedDesign[] grid, int[] schedule, AtomicInteger next,
+                             SweepSummary[] results, Consumer<SweepSummary> deliver) {
+        int position;
+        while ((position = next.getAndIncrement()) < schedule.length) {
+            int cell = schedule[position];
+            SweepSummary summary = summarizeCell(grid[cell]);
+            results[cell] = summary;
+            deliver.accept(summary);
         }
+    }
 
-        // Agregar reflejo
-        for (int i = 0; i < reflexRows; i++) {
-            System.arraycopy(original[i], 0, reflexMatrix[originalRows + i], 0, factors);
+    /**
+     * Recorre los inicios [1, TR] de una celda y conserva la mejor fracción por métrica
+     */
+    private SweepSummary summarizeCell(PreparedDesign prepared) {
+        TopKCollector bestGbm = new TopKCollector(1, FractionMetric.GBM);
+        TopKCollector bestJ2 = new TopKCollector(1, FractionMetric.J2);
+        TopKCollector bestMaxVif = new TopKCollector(1, FractionMetric.MAX_VIF);
+        long tr = prepared.parameters().tr();
+        SlidingFractionEvaluator evaluator = new SlidingFractionEvaluator(
+                prepared.design(), prepared.fractionSize(), tr);
+        try (PipelineMetrics.StageClock clock = metrics.begin(prepared.design(), prepared.fractionSize())) {
+            for (long start = 1; start <= tr; start++) {
+                clock.mark();
+                if (start == 1) {
+                    evaluator.moveTo(1);
+                } else {
+                    evaluator.advance();
+                }
+                clock.lap(PipelineMetrics.Stage.EXTRACTION);
+                double gbm = evaluator.gbm();
+                clock.lap(PipelineMetrics.Stage.GBM);
+                double j2 = evaluator.j2();
+                clock.lap(PipelineMetrics.Stage.J2);
+                double[] vifs = evaluator.vifs();
+                clock.lap(PipelineMetrics.Stage.VIF);
+                FractionScore score = new FractionScore(start, gbm, j2, vifs);
+                bestGbm.offer(score);
+                bestJ2.offer(score);
+                bestMaxVif.offer(score);
+                clock.fraction();
+            }
         }
+        return new SweepSummary(prepared.design(), prepared.fractionSize(), tr,
+                bestGbm.toSortedList().get(0), bestJ2.toSortedList().get(0), bestMaxVif.toSortedList().get(0));
+    }
 
-        return reflexMatrix;
+    /**
+     * Corre los reinicios [from, to); el reinicio i siempre usa el subflujo i de la semilla
+     */
+    private void annealRange(PreparedDesign prepared, AnnealingSettings settings, OptimizedFraction[] best,
+                             int from, int to) {
+        SeededSampler root = new SeededSampler(settings.seed());
+        RowSubsetAnnealer annealer = new RowSubsetAnnealer(
+                prepared.design(), prepared.fractionSize(), prepared.parameters().tr(), settings);
+        for (int i = from; i < to; i++) {
+            best[i] = annealer.run(root.substream(i));
+        }
     }
 
-    private List<FractionResult> generateFractionsFromStarts(int[] design, int fractionSize,
-                                                             double[][] reflexMatrix, int[] starts) {
-        List<FractionResult> results = new ArrayList<>(starts.length);
-        int factors = design.length;
+    private FractionScore scoreFraction(PreparedDesign prepared, FractionView view, PipelineMetrics.StageClock clock) {
+        // GBM y J2 vienen del diseño preparado, iguales para todo inicio; los VIFs sí recorren la fracción
+        double gbm = prepared.gbm(view.start());
+        clock.lap(PipelineMetrics.Stage.GBM);
+        double j2 = prepared.j2();
+        clock.lap(PipelineMetrics.Stage.J2);
+        // Los intermedios de los VIFs van al workspace del hilo; sólo se reserva el arreglo resultante
+        double[] vifs = vifsCalculator.calculate(view, EvaluationWorkspace.forCurrentThread(view.factors()));
+        clock.lap(PipelineMetrics.Stage.VIF);
+
+        return new FractionScore(view.start(), gbm, j2, vifs);
+    }
+
+    /**
+     * Divide el rango de fracciones a la mitad hasta llegar a PARALLEL_GRAIN
+     */
+    private class FractionEvaluationTask<T> extends RecursiveAction {
+
+        private final PreparedDesign prepared;
+        private final long[] starts;
+        private final T[] results;
+        private final int from;
+        private final int to;
+        private final int resultOffset;
+        private final FractionEvaluation<T> evaluation;
+
+        FractionEvaluationTask(PreparedDesign prepared, long[] starts, T[] results,
+                               int from, int to, int resultOffset, FractionEvaluation<T> evaluation) {
+            this.prepared = prepared;
+            this.starts = starts;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+            this.resultOffset = resultOffset;
+            this.evaluation = evaluation;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_GRAIN) {
+                evaluateRange(prepared, starts, results, from, to, resultOffset, evaluation);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(
+                    new FractionEvaluationTask<>(prepared, starts, results, from, mid, resultOffset, evaluation),
+                    new FractionEvaluationTask<>(prepared, starts, results, mid, to, resultOffset, evaluation)
+            );
+        }
+    }
 
-        for (int i = 0; i < starts.length; i++) {
-            int startIndex = starts[i] - 1;
+    /**
+     * Evalúa la fracción de un inicio; produce un FractionResult completo o sólo su FractionScore
+     */
+    @FunctionalInterface
+    private interface FractionEvaluation<T> {
+        T evaluate(PreparedDesign prepared, long start, int fractionNumber, PipelineMetrics.StageClock clock);
+    }
 
-            // Extraer fracción de forma eficiente
-            double[][] fraction = extractFraction(reflexMatrix, startIndex, fractionSize, factors);
+    /**
+     * Divide el rango de inicios a la mitad y combina los K mejores de cada parte
+     */
+    private class TopKScanTask extends RecursiveTask<StagedFractionFilter> {
+
+        private final PreparedDesign prepared;
+        private final int topK;
+        private final FractionMetric metric;
+        private final FractionThresholds thresholds;
+        private final long fromStart;
+        private final long toStart;
+
+        TopKScanTask(PreparedDesign prepared, int topK, FractionMetric metric, FractionThresholds thresholds,
+                     long fromStart, long toStart) {
+            this.prepared = prepared;
+            this.topK = topK;
+            this.metric = metric;
+            this.thresholds = thresholds;
+            this.fromStart = fromStart;
+            this.toStart = toStart;
+        }
 
-            // Calcular métricas
-            double gbm = gbmCalculator.calculateGBM(fraction, design);
-            double j2 = j2Calculator.calculateJ2(fraction);
-            double[] vifs = vifsCalculator.calculate(fraction);
+        @Override
+        protected StagedFractionFilter compute() {
+            if (toStart - fromStart <= Math.max(SCAN_GRAIN, topK)) {
+                return scanRange(prepared, topK, metric, thresholds, fromStart, toStart);
+            }
+            long mid = (fromStart + toStart) >>> 1;
+            TopKScanTask left = new TopKScanTask(prepared, topK, metric, thresholds, fromStart, mid);
+            TopKScanTask right = new TopKScanTask(prepared, topK, metric, thresholds, mid, toStart);
+            left.fork();
+            StagedFractionFilter rightResult = right.compute();
+            return left.join().merge(rightResult);
+        }
+    }
+
+    /**
+     * Divide el rango de inicios a la mitad y une los frentes de cada parte
+     */
+    private class ParetoScanTask extends RecursiveTask<ParetoArchive> {
 
-            results.add(new FractionResult(i + 1, gbm, j2, vifs, fraction));
+        private final PreparedDesign prepared;
+        private final long fromStart;
+        private final long toStart;
+
+        ParetoScanTask(PreparedDesign prepared, long fromStart, long toStart) {
+            this.prepared = prepared;
+            this.fromStart = fromStart;
+            this.toStart = toStart;
         }
 
-        return results;
+        @Override
+        protected ParetoArchive compute() {
+            if (toStart - fromStart <= SCAN_GRAIN) {
+                return paretoRange(prepared, fromStart, toStart);
+            }
+            long mid = (fromStart + toStart) >>> 1;
+            ParetoScanTask left = new ParetoScanTask(prepared, fromStart, mid);
+            ParetoScanTask right = new ParetoScanTask(prepared, mid, toStart);
+            left.fork();
+            ParetoArchive rightResult = right.compute();
+            return left.join().merge(rightResult);
+        }
     }
 
-    private double[][] extractFraction(double[][] source, int startRow, int rows, int cols) {
-        double[][] fraction = new double[rows][cols];
+    /**
+     * Un trabajador del barrido; todos comparten el calendario y el índice de la siguiente celda
+     */
+    private class SweepTask extends RecursiveAction {
+
+        private final PreparedDesign[] grid;
+        private final int[] schedule;
+        private final AtomicInteger next;
+        private final SweepSummary[] results;
+        private final Consumer<SweepSummary> deliver;
+
+        SweepTask(PreparedDesign[] grid, int[] schedule, AtomicInteger next, SweepSummary[] results,
+                  Consumer<SweepSummary> deliver) {
+            this.grid = grid;
+            this.schedule = schedule;
+            this.next = next;
+            this.results = results;
+            this.deliver = deliver;
+        }
+
+        @Override
+        protected void compute() {
+            sweepWorker(grid, schedule, next, results, deliver);
+        }
+    }
 
-        for (int i = 0; i < rows; i++) {
-            System.arraycopy(source[startRow + i], 0, fraction[i], 0, cols);
+    /**
+     * Reparte los reinicios del recocido; cada hoja corre uno solo porque cada reinicio es largo
+     */
+    private class AnnealingTask extends RecursiveAction {
+
+        private final PreparedDesign prepared;
+        private final AnnealingSettings settings;
+        private final OptimizedFraction[] best;
+        private final int from;
+        private final int to;
+
+        AnnealingTask(PreparedDesign prepared, AnnealingSettings settings, OptimizedFraction[] best,
+                      int from, int to) {
+            this.prepared = prepared;
+            this.settings = settings;
+            this.best = best;
+            this.from = from;
+            this.to = to;
         }
 
-        return fraction;
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                annealRange(prepared, settings, best, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(
+                    new AnnealingTask(prepared, settings, best, from, mid),
+                    new AnnealingTask(prepared, settings, best, mid, to)
+            );
+        }
     }
 
-    private int calculateProduct(int[] array) {
-        int product = 1;
-        for (int value : array) {
-            product *= value;
+    /**
+     * Producto de los niveles con aritmética verificada; un diseño cuyo TR no cabe en long se rechaza
+     */
+    private long calculateProduct(int[] array) {
+        long product = 1;
+        try {
+            for (int value : array) {
+                product = Math.multiplyExact(product, value);
+            }
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("El número de corridas (TR) del diseño excede " + Long.MAX_VALUE);
         }
         return product;
     }
 
-    public record DesignParameters(int tr, int factors, int lcm, int gl, int sfMin) {}
+    public record DesignParameters(long tr, int factors, long lcm, int gl, int sfMin) {}
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package me.julionxn.nobaitc.data.nonbpa;
+
+/**
+ * Mejor fracción de filas sueltas que encontró un reinicio del recocido.
+ * @param rows filas de la matriz reflejo (1..TR), en orden creciente
+ * @param objective valor del objetivo ponderado
+ * @param gbm parámetro GBM
+ * @param j2 parámetro J2
+ * @param vifs VIF de cada factor; NaN si la matriz de correlaciones es singular
+ * @param fraction niveles de las filas, en el orden de rows
+ * @param iterations intercambios evaluados por el reinicio
+ */
+public record OptimizedFraction(long[] rows, double objective, double gbm, double j2, double[] vifs,
+                                LevelMatrix fraction, long iterations) {
+
+    /**
+     * @return el mayor VIF, o NaN si alguno no se pudo calcular
+     */
+    public double maxVif() {
+        return FractionScore.maxVif(vifs);
+    }
+}
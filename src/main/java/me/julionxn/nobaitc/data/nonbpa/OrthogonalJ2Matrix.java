@@ -1,5 +1,9 @@
 package me.julionxn.nobaitc.data.nonbpa;
 
+import me.julionxn.nobaitc.data.simd.Kernels;
+
+import java.util.Arrays;
+
 /**
  * Calcula el parámetro J2.
  */
@@ -27,13 +31,121 @@ public class OrthogonalJ2Matrix {
         return j2Total;
     }
 
-    private int countMatches(double[] row1, double[] row2, int length) {
-        int matches = 0;
-        for (int i = 0; i < length; i++) {
-            if (row1[i] == row2[i]) {
-                matches++;
+    /**
+     * Calcula el parámetro J2 para una vista de fracción.
+     * Las filas i y j coinciden en el factor k si y sólo si niveles_k divide a (j - i),
+     * por lo que basta con sumar (rows - d) * matches(d)² sobre cada distancia d: O(rows * factores).
+     * @param view vista de la fracción
+     * @return J2
+     */
+    public double calculateJ2(FractionView view) {
+        int rows = view.rows();
+        int factors = view.factors();
+
+        // Residuo de la distancia actual para cada factor
+        int[] residues = new int[factors];
+        double j2Total = 0;
+        for (int distance = 1; distance < rows; distance++) {
+            int matches = 0;
+            for (int k = 0; k < factors; k++) {
+                if (++residues[k] == view.levels(k)) {
+                    residues[k] = 0;
+                }
+                if (residues[k] == 0) {
+                    matches++;
+                }
+            }
+            j2Total += (double) (rows - distance) * matches * matches;
+        }
+
+        return j2Total;
+    }
+
+    /**
+     * Calcula el parámetro J2 sobre niveles enteros con tablas de contingencia, en O(rows * factores²)
+     * @param fraction fracción en representación compacta
+     * @return J2
+     */
+    public double calculateJ2(LevelMatrix fraction) {
+        return calculateJ2Breakdown(fraction).j2();
+    }
+
+    /**
+     * Calcula J2 contando coincidencias por par de columnas en lugar de comparar cada par de filas.
+     * Como Σ_{i&lt;j} matches(i,j)² = Σ_{k,l} (pares de filas que coinciden en k y en l),
+     * basta con una tabla de contingencia por par de columnas (k, l): cada celda con n filas
+     * aporta C(n, 2) pares. El desglose por par de columnas sale sin costo adicional.
+     * @param fraction fracción en representación compacta
+     * @return J2 y pares de filas coincidentes por par de columnas
+     */
+    public J2Breakdown calculateJ2Breakdown(LevelMatrix fraction) {
+        int factors = fraction.factors();
+        byte[] cells = fraction.cells();
+
+        int[] levels = new int[factors];
+        for (int i = 0; i < cells.length; i++) {
+            int k = i % factors;
+            levels[k] = Math.max(levels[k], cells[i] & 0xFF);
+        }
+
+        int maxCells = 0;
+        for (int k = 0; k < factors; k++) {
+            for (int l = k; l < factors; l++) {
+                maxCells = Math.max(maxCells, (levels[k] + 1) * (levels[l] + 1));
+            }
+        }
+        int[] table = new int[maxCells];
+        long[][] pairMatches = new long[factors][factors];
+
+        for (int k = 0; k < factors; k++) {
+            for (int l = k; l < factors; l++) {
+                int width = levels[l] + 1;
+                int size = (levels[k] + 1) * width;
+                Arrays.fill(table, 0, size, 0);
+                for (int base = 0; base < cells.length; base += factors) {
+                    table[(cells[base + k] & 0xFF) * width + (cells[base + l] & 0xFF)]++;
+                }
+                long pairs = 0;
+                for (int c = 0; c < size; c++) {
+                    long n = table[c];
+                    pairs += n * (n - 1) / 2;
+                }
+                pairMatches[k][l] = pairs;
+                pairMatches[l][k] = pairs;
+            }
+        }
+
+        return new J2Breakdown(pairMatches);
+    }
+
+    /**
+     * Desglose de J2 por par de columnas
+     * @param pairMatches pares de filas que coinciden en las columnas k y l (en k si k == l)
+     */
+    public record J2Breakdown(long[][] pairMatches) {
+
+        /**
+         * @return J2 = Σ sobre todos los pares ordenados (k, l) de pairMatches[k][l]
+         */
+        public double j2() {
+            long total = 0;
+            for (long[] row : pairMatches) {
+                for (long value : row) {
+                    total += value;
+                }
             }
+            return total;
         }
-        return matches;
+
+        /**
+         * @return aporte a J2 del par de columnas (k, l); si k != l cuenta ambos órdenes
+         */
+        public long contribution(int k, int l) {
+            return k == l ? pairMatches[k][k] : 2 * pairMatches[k][l];
+        }
+    }
+
+    private int countMatches(double[] row1, double[] row2, int length) {
+        return Kernels.active().countEqual(row1, row2, length);
     }
 }
\ No newline at end of file
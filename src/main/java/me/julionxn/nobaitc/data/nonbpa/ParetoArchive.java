@@ -0,0 +1,95 @@
+package me.julionxn.nobaitc.data.nonbpa;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Conjunto de fracciones no dominadas en GBM, J2 y Max VIF (las tres se minimizan).
+ * Una fracción domina a otra si no es peor en ninguna métrica y es mejor en al menos una.
+ * <p>
+ * El archivo se mantiene ordenado lexicográficamente por (GBM, J2, Max VIF, inicio). En ese orden,
+ * una fracción sólo puede ser dominada por las que quedan antes de su posición y sólo puede dominar
+ * a las que quedan después, así que cada inserción revisa el prefijo para descartarla y el sufijo
+ * para retirar las que deja dominadas, sin comparar todos los pares al final.
+ * Entre fracciones con las mismas tres métricas se conserva la de menor inicio.
+ * Un Max VIF NaN (matriz singular) cuenta como el peor valor posible.
+ */
+public class ParetoArchive {
+
+    private static final Comparator<FractionScore> ORDER = Comparator
+            .comparingDouble(FractionScore::gbm)
+            .thenComparingDouble(FractionScore::j2)
+            .thenComparingDouble(ParetoArchive::maxVif)
+            .thenComparingLong(FractionScore::start);
+
+    private final List<FractionScore> front = new ArrayList<>();
+
+    /**
+     * Ofrece una fracción al archivo
+     * @return true si la fracción quedó en el frente
+     */
+    public boolean offer(FractionScore score) {
+        int position = Collections.binarySearch(front, score, ORDER);
+        if (position >= 0) {
+            return false;
+        }
+        position = -position - 1;
+
+        for (int i = 0; i < position; i++) {
+            if (weaklyDominates(front.get(i), score)) {
+                return false;
+            }
+        }
+
+        // Compacta el sufijo retirando las fracciones que la nueva domina o iguala
+        int write = position;
+        for (int read = position; read < front.size(); read++) {
+            FractionScore other = front.get(read);
+            if (!weaklyDominates(score, other)) {
+                front.set(write++, other);
+            }
+        }
+        front.subList(write, front.size()).clear();
+        front.add(position, score);
+        return true;
+    }
+
+    /**
+     * Agrega el frente de otro archivo (por ejemplo, el de otro hilo)
+     */
+    public ParetoArchive merge(ParetoArchive other) {
+        for (FractionScore score : other.front) {
+            offer(score);
+        }
+        return this;
+    }
+
+    public int size() {
+        return front.size();
+    }
+
+    /**
+     * @return el frente ordenado por GBM, luego J2, luego Max VIF
+     */
+    public List<FractionScore> toSortedList() {
+        return new ArrayList<>(front);
+    }
+
+    /**
+     * @return true si a domina a b: no es peor en ninguna métrica y es mejor en al menos una
+     */
+    public static boolean dominates(FractionScore a, FractionScore b) {
+        return weaklyDominates(a, b) && (a.gbm() < b.gbm() || a.j2() < b.j2() || maxVif(a) < maxVif(b));
+    }
+
+    private static boolean weaklyDominates(FractionScore a, FractionScore b) {
+        return a.gbm() <= b.gbm() && a.j2() <= b.j2() && maxVif(a) <= maxVif(b);
+    }
+
+    private static double maxVif(FractionScore score) {
+        double max = score.maxVif();
+        return Double.isNaN(max) ? Double.POSITIVE_INFINITY : max;
+    }
+}
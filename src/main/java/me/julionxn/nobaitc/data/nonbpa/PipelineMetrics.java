@@ -0,0 +1,254 @@
+package me.julionxn.nobaitc.data.nonbpa;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Instrumentación del proceso de generación: tiempo acumulado por etapa, fracciones por segundo
+ * y bytes asignados por fracción. Cada rango de fracciones acumula en su propio {@link StageClock}
+ * y sólo al cerrarlo se publica aquí y como evento de JDK Flight Recorder.
+ * La instancia {@link #DISABLED} no mide nada: sus relojes sólo revisan un campo nulo.
+ */
+public final class PipelineMetrics {
+
+    public enum Stage {
+        EXTRACTION("Extracción"),
+        GBM("GBM"),
+        J2("J2"),
+        VIF("VIF");
+
+        private final String label;
+
+        Stage(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    private static final Stage[] STAGES = Stage.values();
+    private static final com.sun.management.ThreadMXBean THREADS = allocationBean();
+
+    public static final PipelineMetrics DISABLED = new PipelineMetrics(false);
+
+    private final boolean enabled;
+    private final StageClock disabledClock;
+    private final LongAdder[] stageNanos = new LongAdder[STAGES.length];
+    private final LongAdder fractions = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+    private final AtomicLong firstNanos = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong lastNanos = new AtomicLong(Long.MIN_VALUE);
+
+    private PipelineMetrics(boolean enabled) {
+        this.enabled = enabled;
+        this.disabledClock = enabled ? null : new StageClock(null, null, 0);
+        for (int i = 0; i < STAGES.length; i++) {
+            stageNanos[i] = new LongAdder();
+        }
+        if (enabled) {
+            enableAllocationTracking();
+        }
+    }
+
+    /**
+     * Crea una instancia que sí mide
+     */
+    public static PipelineMetrics create() {
+        return new PipelineMetrics(true);
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported()) {
+            return bean;
+        }
+        return null;
+    }
+
+    /**
+     * La medición de memoria por hilo es un ajuste de toda la JVM, así que sólo se activa
+     * al crear una instancia que mide; {@link #DISABLED} no la toca
+     */
+    private static void enableAllocationTracking() {
+        if (THREADS != null && !THREADS.isThreadAllocatedMemoryEnabled()) {
+            THREADS.setThreadAllocatedMemoryEnabled(true);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Abre un reloj para un rango de fracciones evaluado en el hilo actual
+     */
+    public StageClock begin(int[] design, int fractionSize) {
+        if (!enabled) {
+            return disabledClock;
+        }
+        return new StageClock(this, design, fractionSize);
+    }
+
+    void record(StageClock clock, long beginNanos, long endNanos, long allocated) {
+        for (int i = 0; i < STAGES.length; i++) {
+            stageNanos[i].add(clock.nanos[i]);
+        }
+        fractions.add(clock.fractions);
+        if (allocated > 0) {
+            allocatedBytes.add(allocated);
+        }
+        firstNanos.accumulateAndGet(beginNanos, Math::min);
+        lastNanos.accumulateAndGet(endNanos, Math::max);
+    }
+
+    public Snapshot snapshot() {
+        Map<Stage, Long> byStage = new EnumMap<>(Stage.class);
+        for (int i = 0; i < STAGES.length; i++) {
+            byStage.put(STAGES[i], stageNanos[i].sum());
+        }
+        long first = firstNanos.get();
+        long last = lastNanos.get();
+        long wallNanos = last > first ? last - first : 0;
+        return new Snapshot(fractions.sum(), wallNanos, allocatedBytes.sum(), Collections.unmodifiableMap(byStage));
+    }
+
+    public void reset() {
+        for (LongAdder adder : stageNanos) {
+            adder.reset();
+        }
+        fractions.reset();
+        allocatedBytes.reset();
+        firstNanos.set(Long.MAX_VALUE);
+        lastNanos.set(Long.MIN_VALUE);
+    }
+
+    /**
+     * Acumula los tiempos de un rango de fracciones. No es seguro entre hilos: cada rango usa el suyo.
+     * Se abre con try-with-resources, para que un rango que falla también publique lo que alcanzó a medir.
+     */
+    public static final class StageClock implements AutoCloseable {
+
+        private final PipelineMetrics owner;
+        private final int[] design;
+        private final int fractionSize;
+        private final long[] nanos;
+        private final long beginNanos;
+        private final long beginAllocated;
+        private final FractionRangeEvent event;
+        private long last;
+        private int fractions;
+
+        private StageClock(PipelineMetrics owner, int[] design, int fractionSize) {
+            this.owner = owner;
+            this.design = design;
+            this.fractionSize = fractionSize;
+            if (owner == null) {
+                this.nanos = null;
+                this.beginNanos = 0;
+                this.beginAllocated = 0;
+                this.event = null;
+                return;
+            }
+            this.nanos = new long[STAGES.length];
+            this.event = new FractionRangeEvent();
+            this.event.begin();
+            this.beginAllocated = THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : 0;
+            this.beginNanos = System.nanoTime();
+            this.last = beginNanos;
+        }
+
+        /**
+         * Reinicia el cronómetro sin asignar el tiempo transcurrido a ninguna etapa
+         */
+        public void mark() {
+            if (owner != null) {
+                last = System.nanoTime();
+            }
+        }
+
+        /**
+         * Asigna a la etapa el tiempo transcurrido desde la última marca
+         */
+        public void lap(Stage stage) {
+            if (owner != null) {
+                long now = System.nanoTime();
+                nanos[stage.ordinal()] += now - last;
+                last = now;
+            }
+        }
+
+        /**
+         * Cuenta una fracción terminada
+         */
+        public void fraction() {
+            if (owner != null) {
+                fractions++;
+            }
+        }
+
+        /**
+         * Publica lo acumulado en las métricas y como evento JFR
+         */
+        @Override
+        public void close() {
+            if (owner == null) {
+                return;
+            }
+            long endNanos = System.nanoTime();
+            long allocated = THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() - beginAllocated : -1;
+            owner.record(this, beginNanos, endNanos, allocated);
+
+            event.end();
+            if (event.shouldCommit()) {
+                event.design = Arrays.toString(design);
+                event.fractionSize = fractionSize;
+                event.fractions = fractions;
+                event.extractionNanos = nanos[Stage.EXTRACTION.ordinal()];
+                event.gbmNanos = nanos[Stage.GBM.ordinal()];
+                event.j2Nanos = nanos[Stage.J2.ordinal()];
+                event.vifNanos = nanos[Stage.VIF.ordinal()];
+                event.allocatedBytes = allocated;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Métricas acumuladas hasta un momento dado
+     * @param fractions fracciones evaluadas
+     * @param wallNanos tiempo de reloj entre el primer y el último rango medido
+     * @param allocatedBytes bytes asignados por los hilos mientras evaluaban (0 si la JVM no lo soporta)
+     * @param stageNanos tiempo acumulado por etapa, sumado entre hilos
+     */
+    public record Snapshot(long fractions, long wallNanos, long allocatedBytes, Map<Stage, Long> stageNanos) {
+
+        public double fractionsPerSecond() {
+            return wallNanos == 0 ? 0 : fractions / (wallNanos / 1e9);
+        }
+
+        public double allocatedBytesPerFraction() {
+            return fractions == 0 ? 0 : (double) allocatedBytes / fractions;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("Fracciones: %d (%.0f fracciones/s, %.0f bytes/fracción)%n",
+                    fractions, fractionsPerSecond(), allocatedBytesPerFraction()));
+            for (Map.Entry<Stage, Long> entry : stageNanos.entrySet()) {
+                double millis = entry.getValue() / 1e6;
+                double perFraction = fractions == 0 ? 0 : (double) entry.getValue() / fractions;
+                sb.append(String.format("  %-10s %10.2f ms  %8.1f ns/fracción%n", entry.getKey(), millis, perFraction));
+            }
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package me.julionxn.nobaitc.data.nonbpa;
+
+/**
+ * Datos de un diseño ya validado para un tamaño de fracción.
+ * Además de los parámetros, guarda lo que todas sus fracciones comparten:
+ * <ul>
+ *     <li>en una ventana de filas consecutivas cada nivel aparece rows / L o rows / L + 1 veces, así que
+ *     el GBM, calculado con el numerador entero exacto, es el mismo para cualquier inicio</li>
+ *     <li>J2 sólo depende de las distancias entre filas, así que es igual para cualquier inicio</li>
+ * </ul>
+ */
+public final class PreparedDesign {
+
+    private final int[] design;
+    private final int fractionSize;
+    private final NONBPAGeneratorService.DesignParameters parameters;
+    private final double gbm;
+    private final double j2;
+
+    PreparedDesign(int[] design, int fractionSize, NONBPAGeneratorService.DesignParameters parameters) {
+        this.design = design.clone();
+        this.fractionSize = fractionSize;
+        this.parameters = parameters;
+        this.gbm = BalancedGBMMatrix.windowGbm(this.design, fractionSize);
+        this.j2 = new OrthogonalJ2Matrix().calculateJ2(FractionView.of(this.design, 1, fractionSize));
+    }
+
+    public int[] design() {
+        return design;
+    }
+
+    public int fractionSize() {
+        return fractionSize;
+    }
+
+    public NONBPAGeneratorService.DesignParameters parameters() {
+        return parameters;
+    }
+
+    /**
+     * @param start inicio de la fracción (1..TR)
+     * @return GBM de la fracción; idéntico al de SlidingFractionEvaluator y al de la fracción como LevelMatrix
+     */
+    public double gbm(long start) {
+        return gbm;
+    }
+
+    /**
+     * @return J2, común a todas las fracciones de este tamaño
+     */
+    public double j2() {
+        return j2;
+    }
+
+    /**
+     * Tamaño aproximado en memoria, usado por la caché para decidir cuándo desalojar
+     */
+    long estimatedBytes() {
+        return 64 + 16 + 4L * design.length + 48;
+    }
+}
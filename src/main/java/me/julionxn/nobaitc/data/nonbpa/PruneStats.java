@@ -0,0 +1,33 @@
+package me.julionxn.nobaitc.data.nonbpa;
+
+/**
+ * Cuántas fracciones descartó cada etapa de una búsqueda por etapas.
+ * Una fracción se poda en la primera etapa en la que no cumple su umbral o en la que,
+ * siendo esa la métrica de orden, ya no puede entrar entre las K mejores.
+ * @param evaluated fracciones evaluadas
+ * @param prunedAtGbm descartadas tras calcular sólo el GBM
+ * @param prunedAtJ2 descartadas tras calcular el J2, sin llegar a los VIFs
+ * @param prunedAtVif descartadas por el umbral de VIF
+ */
+public record PruneStats(long evaluated, long prunedAtGbm, long prunedAtJ2, long prunedAtVif) {
+
+    public static final PruneStats EMPTY = new PruneStats(0, 0, 0, 0);
+
+    /**
+     * @return fracciones para las que sí se invirtió la matriz de correlaciones
+     */
+    public long vifComputations() {
+        return evaluated - prunedAtGbm - prunedAtJ2;
+    }
+
+    public PruneStats plus(PruneStats other) {
+        return new PruneStats(evaluated + other.evaluated, prunedAtGbm + other.prunedAtGbm,
+                prunedAtJ2 + other.prunedAtJ2, prunedAtVif + other.prunedAtVif);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d evaluadas, podadas: %d en GBM, %d en J2, %d en VIF (%d VIFs calculados)",
+                evaluated, prunedAtGbm, prunedAtJ2, prunedAtVif, vifComputations());
+    }
+}
@@ -0,0 +1,210 @@
+package me.julionxn.nobaitc.data.nonbpa;
+
+import me.julionxn.nobaitc.data.SeededSampler;
+
+import java.util.Arrays;
+
+/**
+ * Un reinicio del recocido simulado sobre subconjuntos de filas de la matriz reflejo.
+ * El estado es un conjunto de fractionSize filas distintas; cada paso cambia una fila del conjunto
+ * por otra de fuera. El intercambio se evalúa en el {@link FractionAccumulator} quitando una fila y
+ * agregando otra, así que GBM y J2 cuestan O(factores²) y sólo los VIFs invierten la matriz.
+ * Un intercambio que empeora el objetivo en Δ se acepta con probabilidad exp(-Δ/T); T baja
+ * geométricamente desde una temperatura calibrada con intercambios de prueba.
+ * No es seguro para uso concurrente: cada hilo debe tener su propio recocido.
+ */
+class RowSubsetAnnealer {
+
+    /**
+     * Cada cuántas iteraciones se revisan el reloj y la temperatura
+     */
+    private static final int CHECK_INTERVAL = 256;
+
+    /**
+     * Intercambios de prueba para estimar la temperatura inicial
+     */
+    private static final int CALIBRATION_SWAPS = 64;
+
+    /**
+     * Temperatura final relativa a la inicial
+     */
+    private static final double FINAL_TEMPERATURE_RATIO = 1e-4;
+
+    private final int[] design;
+    private final int factors;
+    private final long tr;
+    private final int fractionSize;
+    private final AnnealingSettings settings;
+    private final FractionAccumulator accumulator;
+    private final EvaluationWorkspace workspace;
+    private final VIFSMatrix vifsCalculator;
+
+    // Filas del conjunto actual, como residuos 0..TR-1
+    private final long[] rows;
+    private final int[] rowLevels;
+
+    RowSubsetAnnealer(int[] design, int fractionSize, long tr, AnnealingSettings settings) {
+        this.design = design;
+        this.factors = design.length;
+        this.tr = tr;
+        this.fractionSize = fractionSize;
+        this.settings = settings;
+        this.accumulator = new FractionAccumulator(design);
+        this.workspace = new EvaluationWorkspace(factors);
+        this.vifsCalculator = new VIFSMatrix();
+        this.rows = new long[fractionSize];
+        this.rowLevels = new int[factors];
+    }
+
+    /**
+     * Corre un reinicio completo. Parte de una ventana contigua al azar, que ya es una fracción
+     * razonable; como se conserva la mejor visitada, el resultado nunca es peor que esa ventana.
+     * @param random subflujo propio del reinicio
+     */
+    OptimizedFraction run(SeededSampler random) {
+        long first = random.nextLong(tr);
+        for (int i = 0; i < fractionSize; i++) {
+            rows[i] = (first + i) % tr;
+        }
+        accumulator.reset();
+        for (long row : rows) {
+            accumulator.add(levels(row));
+        }
+
+        double current = objective();
+        double bestObjective = current;
+        long[] best = rows.clone();
+
+        double initialTemperature = calibrate(random, current);
+        double temperature = initialTemperature;
+        long maxIterations = settings.maxIterations();
+        long timeLimitNanos = settings.timeLimitMillis() >= Long.MAX_VALUE / 1_000_000
+                ? Long.MAX_VALUE
+                : settings.timeLimitMillis() * 1_000_000;
+        long startNanos = System.nanoTime();
+
+        long iterations = 0;
+        while (iterations < maxIterations) {
+            if (iterations % CHECK_INTERVAL == 0) {
+                double progress = (double) iterations / maxIterations;
+                if (timeLimitNanos != Long.MAX_VALUE) {
+                    long elapsed = System.nanoTime() - startNanos;
+                    if (elapsed >= timeLimitNanos) {
+                        break;
+                    }
+                    progress = Math.max(progress, (double) elapsed / timeLimitNanos);
+                }
+                temperature = initialTemperature * Math.pow(FINAL_TEMPERATURE_RATIO, progress);
+            }
+
+            int slot = random.nextInt(fractionSize);
+            long outgoing = rows[slot];
+            swap(slot, pickOutside(random));
+            double value = objective();
+            iterations++;
+
+            if (value <= current || random.nextDouble() < Math.exp((current - value) / temperature)) {
+                current = value;
+                if (value < bestObjective) {
+                    bestObjective = value;
+                    System.arraycopy(rows, 0, best, 0, fractionSize);
+                }
+            } else {
+                swap(slot, outgoing);
+            }
+        }
+
+        return result(best, iterations);
+    }
+
+    /**
+     * Temperatura inicial: la mediana de los empeoramientos de intercambios al azar, para que al
+     * principio se acepte la mitad de los intercambios típicos con probabilidad ≥ 1/e.
+     * Se usa la mediana porque cerca de una matriz singular un solo intercambio dispara los VIFs.
+     * Los intercambios se deshacen.
+     */
+    private double calibrate(SeededSampler random, double current) {
+        double[] deltas = new double[CALIBRATION_SWAPS];
+        int worse = 0;
+        for (int i = 0; i < CALIBRATION_SWAPS; i++) {
+            int slot = random.nextInt(fractionSize);
+            long outgoing = rows[slot];
+            swap(slot, pickOutside(random));
+            double delta = objective() - current;
+            swap(slot, outgoing);
+            if (delta > 0 && !Double.isInfinite(delta)) {
+                deltas[worse++] = delta;
+            }
+        }
+        if (worse == 0) {
+            return 1.0;
+        }
+        Arrays.sort(deltas, 0, worse);
+        return deltas[worse / 2];
+    }
+
+    private void swap(int slot, long incoming) {
+        accumulator.remove(levels(rows[slot]));
+        accumulator.add(levels(incoming));
+        rows[slot] = incoming;
+    }
+
+    /**
+     * Fila al azar que no está en el conjunto. La pertenencia se revisa recorriendo el conjunto,
+     * que cuesta O(fractionSize), menos que evaluar el intercambio.
+     */
+    private long pickOutside(SeededSampler random) {
+        while (true) {
+            long candidate = random.nextLong(tr);
+            if (!contains(candidate)) {
+                return candidate;
+            }
+        }
+    }
+
+    private boolean contains(long row) {
+        for (long value : rows) {
+            if (value == row) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private double objective() {
+        double maxVif = Double.NaN;
+        if (settings.vifWeight() > 0) {
+            maxVif = FractionScore.maxVif(vifsCalculator.fromCorrelationOrNaN(accumulator.correlation(workspace), workspace));
+        }
+        return settings.objective(accumulator.gbm(), accumulator.j2(), maxVif);
+    }
+
+    /**
+     * Recalcula las métricas del mejor conjunto y lo materializa con las filas en orden
+     */
+    private OptimizedFraction result(long[] best, long iterations) {
+        Arrays.sort(best);
+        accumulator.reset();
+        for (long row : best) {
+            accumulator.add(levels(row));
+        }
+        double gbm = accumulator.gbm();
+        double j2 = accumulator.j2();
+        double[] vifs = vifsCalculator.fromCorrelationOrNaN(accumulator.correlation(workspace), workspace);
+
+        long[] rowNumbers = new long[fractionSize];
+        for (int i = 0; i < fractionSize; i++) {
+            rowNumbers[i] = best[i] + 1;
+        }
+        return new OptimizedFraction(rowNumbers, settings.objective(gbm, j2, FractionScore.maxVif(vifs)), gbm, j2, vifs,
+                LevelMatrix.ofRows(design, rowNumbers), iterations);
+    }
+
+    private int[] levels(long row) {
+        // Fila de la matriz reflejo: (r mod niveles) en cada factor
+        for (int k = 0; k < factors; k++) {
+            rowLevels[k] = (int) (row % design[k]);
+        }
+        return rowLevels;
+    }
+}
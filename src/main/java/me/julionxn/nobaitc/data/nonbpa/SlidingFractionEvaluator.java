@@ -0,0 +1,111 @@
+package me.julionxn.nobaitc.data.nonbpa;
+
+/**
+ * Evalúa fracciones consecutivas del diseño deslizando la ventana.
+ * Las fracciones con inicios s y s+1 comparten todas las filas menos una, así que en lugar de
+ * recalcular se quita la fila que sale y se agrega la que entra en un {@link FractionAccumulator}.
+ * Cada paso cuesta O(factores²) más la inversión de los VIFs.
+ * No es seguro para uso concurrente: cada hilo debe tener su propio evaluador.
+ */
+public class SlidingFractionEvaluator {
+
+    private final int[] design;
+    private final int fractionSize;
+    private final int factors;
+    private final long tr;
+    private final VIFSMatrix vifsCalculator;
+    private final FractionAccumulator accumulator;
+    private final EvaluationWorkspace workspace;
+
+    private final int[] rowLevels;
+    private long start;
+
+    /**
+     * @param design niveles de cada factor
+     * @param fractionSize número de filas de cada fracción
+     * @param tr número de corridas del diseño
+     */
+    public SlidingFractionEvaluator(int[] design, int fractionSize, long tr) {
+        this.design = design;
+        this.fractionSize = fractionSize;
+        this.factors = design.length;
+        this.tr = tr;
+        this.vifsCalculator = new VIFSMatrix();
+        this.accumulator = new FractionAccumulator(design);
+        this.workspace = new EvaluationWorkspace(design.length);
+        this.rowLevels = new int[factors];
+    }
+
+    /**
+     * Coloca la ventana en el inicio indicado. Si es el siguiente al actual sólo se desliza;
+     * en otro caso se reconstruye desde cero.
+     * @param start inicio de la fracción (1..TR)
+     */
+    public void moveTo(long start) {
+        if (this.start != 0 && start == nextStart()) {
+            advance();
+            return;
+        }
+        accumulator.reset();
+        long first = start - 1;
+        for (int i = 0; i < fractionSize; i++) {
+            accumulator.add(loadRow(first + i));
+        }
+        this.start = start;
+    }
+
+    /**
+     * Desliza la ventana una fila. Después del inicio TR regresa al inicio 1.
+     */
+    public void advance() {
+        if (start == 0) {
+            throw new IllegalStateException("La ventana no se ha colocado");
+        }
+        long first = start - 1;
+        accumulator.remove(loadRow(first));
+        accumulator.add(loadRow(first + fractionSize));
+        start = nextStart();
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public double gbm() {
+        return accumulator.gbm();
+    }
+
+    public double j2() {
+        return accumulator.j2();
+    }
+
+    /**
+     * Matriz de correlaciones de la ventana, equivalente a corrcoef sobre la fracción
+     */
+    public double[][] correlation() {
+        return accumulator.correlation();
+    }
+
+    /**
+     * @return VIFs de la ventana; NaN si la matriz de correlaciones es singular
+     */
+    public double[] vifs() {
+        return vifsCalculator.fromCorrelationOrNaN(accumulator.correlation(workspace), workspace);
+    }
+
+    public FractionScore score() {
+        return new FractionScore(start, gbm(), j2(), vifs());
+    }
+
+    private long nextStart() {
+        return start == tr ? 1 : start + 1;
+    }
+
+    private int[] loadRow(long row) {
+        // Fila de la matriz reflejo: (r mod niveles) en cada factor
+        for (int k = 0; k < factors; k++) {
+            rowLevels[k] = (int) (row % design[k]);
+        }
+        return rowLevels;
+    }
+}
@@ -0,0 +1,80 @@
+package me.julionxn.nobaitc.data.nonbpa;
+
+/**
+ * Evalúa una fracción por etapas, de la métrica más barata a la más cara:
+ * GBM y J2 cuestan O(factores) en la ventana deslizante, los VIFs O(factores³).
+ * Tras cada etapa la fracción se descarta si no cumple el umbral o si, siendo la métrica de orden,
+ * ya no puede superar a la K-ésima mejor; así sólo las que aún pueden conservarse pagan los VIFs.
+ * <p>
+ * En una ventana contigua GBM y J2 son iguales para todo inicio ({@link PreparedDesign#gbm(long)},
+ * {@link PreparedDesign#j2()}), así que esas etapas sólo podan cuando su umbral rechaza todas las fracciones,
+ * o, si son la métrica de orden, por el desempate de inicio una vez llenas las K posiciones.
+ * La poda que depende de cada fracción ocurre en la etapa de VIFs.
+ * <p>
+ * Cada hilo usa su propio filtro; se combinan con {@link #merge(StagedFractionFilter)}.
+ */
+class StagedFractionFilter {
+
+    private final FractionMetric metric;
+    private final FractionThresholds thresholds;
+    private final TopKCollector collector;
+
+    private long evaluated;
+    private long prunedAtGbm;
+    private long prunedAtJ2;
+    private long prunedAtVif;
+
+    StagedFractionFilter(int topK, FractionMetric metric, FractionThresholds thresholds) {
+        this.metric = metric;
+        this.thresholds = thresholds;
+        this.collector = new TopKCollector(topK, metric);
+    }
+
+    /**
+     * Evalúa la ventana actual del evaluador y la ofrece al colector si pasa todas las etapas
+     */
+    void offer(SlidingFractionEvaluator evaluator, PipelineMetrics.StageClock clock) {
+        evaluated++;
+        long start = evaluator.getStart();
+
+        double gbm = evaluator.gbm();
+        clock.lap(PipelineMetrics.Stage.GBM);
+        if (!thresholds.acceptsGbm(gbm) || (metric == FractionMetric.GBM && !collector.admits(gbm, start))) {
+            prunedAtGbm++;
+            return;
+        }
+
+        double j2 = evaluator.j2();
+        clock.lap(PipelineMetrics.Stage.J2);
+        if (!thresholds.acceptsJ2(j2) || (metric == FractionMetric.J2 && !collector.admits(j2, start))) {
+            prunedAtJ2++;
+            return;
+        }
+
+        FractionScore score = new FractionScore(start, gbm, j2, evaluator.vifs());
+        clock.lap(PipelineMetrics.Stage.VIF);
+        if (!thresholds.acceptsVif(score.maxVif())) {
+            prunedAtVif++;
+            return;
+        }
+
+        collector.offer(score);
+    }
+
+    StagedFractionFilter merge(StagedFractionFilter other) {
+        collector.merge(other.collector);
+        evaluated += other.evaluated;
+        prunedAtGbm += other.prunedAtGbm;
+        prunedAtJ2 += other.prunedAtJ2;
+        prunedAtVif += other.prunedAtVif;
+        return this;
+    }
+
+    TopKCollector collector() {
+        return collector;
+    }
+
+    PruneStats stats() {
+        return new PruneStats(evaluated, prunedAtGbm, prunedAtJ2, prunedAtVif);
+    }
+}
@@ -0,0 +1,11 @@
+package me.julionxn.nobaitc.data.nonbpa;
+
+import java.util.List;
+
+/**
+ * Resultado de una búsqueda de las K mejores fracciones por etapas
+ * @param fractions las fracciones conservadas, de mejor a peor
+ * @param pruning fracciones descartadas en cada etapa
+ */
+public record StagedScan(List<FractionResult> fractions, PruneStats pruning) {
+}
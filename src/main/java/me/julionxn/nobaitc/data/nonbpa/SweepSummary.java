@@ -0,0 +1,15 @@
+package me.julionxn.nobaitc.data.nonbpa;
+
+/**
+ * Resumen de una celda (diseño, tamaño de fracción) de un barrido de diseños:
+ * la mejor ventana contigua según cada métrica, entre todos los inicios [1, TR].
+ * @param design niveles de cada factor
+ * @param fractionSize tamaño de fracción
+ * @param tr número de corridas del diseño, que es también el número de fracciones evaluadas
+ * @param bestGbm fracción con menor GBM
+ * @param bestJ2 fracción con menor J2
+ * @param bestMaxVif fracción con menor Max VIF; si todas son singulares, su VIF es NaN
+ */
+public record SweepSummary(int[] design, int fractionSize, long tr,
+                           FractionScore bestGbm, FractionScore bestJ2, FractionScore bestMaxVif) {
+}
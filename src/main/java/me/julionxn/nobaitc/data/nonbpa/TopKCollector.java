@@ -0,0 +1,84 @@
+package me.julionxn.nobaitc.data.nonbpa;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Conserva las K mejores fracciones según una métrica.
+ * Usa un heap acotado cuya cabeza es la peor de las K, así la memoria es O(K)
+ * sin importar cuántas fracciones se ofrezcan.
+ */
+public class TopKCollector {
+
+    private final int capacity;
+    private final FractionMetric metric;
+    private final Comparator<FractionScore> order;
+    private final PriorityQueue<FractionScore> heap;
+
+    public TopKCollector(int capacity, FractionMetric metric) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("K debe ser mayor a 0");
+        }
+        this.capacity = capacity;
+        this.metric = metric;
+        this.order = metric.comparator();
+        this.heap = new PriorityQueue<>(Math.min(capacity, 1024) + 1, order.reversed());
+    }
+
+    /**
+     * Ofrece una fracción al colector
+     * @return true si la fracción quedó entre las K mejores
+     */
+    public boolean offer(FractionScore score) {
+        if (heap.size() < capacity) {
+            heap.add(score);
+            return true;
+        }
+        if (order.compare(score, heap.peek()) < 0) {
+            heap.poll();
+            heap.add(score);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Indica si una fracción con este valor de la métrica entraría entre las K mejores,
+     * sin haber calculado el resto de sus métricas
+     * @param value valor de la métrica de orden
+     * @param start inicio de la fracción, desempata igual que el comparador
+     */
+    public boolean admits(double value, long start) {
+        if (heap.size() < capacity) {
+            return true;
+        }
+        FractionScore worst = heap.peek();
+        int cmp = Double.compare(value, metric.of(worst));
+        return cmp < 0 || (cmp == 0 && start < worst.start());
+    }
+
+    /**
+     * Agrega las fracciones de otro colector (por ejemplo, el de otro hilo)
+     */
+    public TopKCollector merge(TopKCollector other) {
+        for (FractionScore score : other.heap) {
+            offer(score);
+        }
+        return this;
+    }
+
+    public int size() {
+        return heap.size();
+    }
+
+    /**
+     * @return las fracciones conservadas, de mejor a peor
+     */
+    public List<FractionScore> toSortedList() {
+        List<FractionScore> sorted = new ArrayList<>(heap);
+        sorted.sort(order);
+        return sorted;
+    }
+}
@@ -2,15 +2,272 @@ package me.julionxn.nobaitc.data.nonbpa;
 
 import me.julionxn.nobaitc.data.MatlabFunctions;
 
+import java.util.Arrays;
+
 public class VIFSMatrix {
 
+    /**
+     * Pivote mínimo de la factorización, el mismo umbral que usa MatlabFunctions.inv
+     */
+    private static final double EPSILON = 1e-10;
+
+    // Resultados de la factorización LDLᵀ
+    private static final int FACTORED = 0;
+    private static final int SINGULAR = 1;
+    private static final int NOT_POSITIVE_DEFINITE = 2;
+
     public double[] calculate(double[][] fraction){
-        double[][] r2 = MatlabFunctions.corrcoef(fraction);
-        double[][] r2Inverse = MatlabFunctions.inv(r2);
-        if (r2Inverse == null) {
+        return fromCorrelation(MatlabFunctions.corrcoef(fraction));
+    }
+
+    /**
+     * Igual que calculate, pero los intermedios se escriben en el workspace
+     */
+    public double[] calculate(double[][] fraction, EvaluationWorkspace workspace){
+        workspace.checkFactors(fraction[0].length);
+        double[][] r2 = MatlabFunctions.corrcoef(fraction, workspace.correlation, workspace.means, workspace.deviations);
+        return fromCorrelation(r2, workspace);
+    }
+
+    /**
+     * Calcula los VIFs de una vista de fracción a partir de las sumas enteras de sus columnas
+     */
+    public double[] calculate(FractionView view){
+        return calculate(view, new EvaluationWorkspace(view.factors()));
+    }
+
+    /**
+     * Igual que calculate, pero los intermedios se escriben en el workspace
+     */
+    public double[] calculate(FractionView view, EvaluationWorkspace workspace){
+        return fromCorrelation(correlation(view, workspace), workspace);
+    }
+
+    /**
+     * Igual que calculate, pero si la matriz es singular devuelve VIFs NaN en lugar de fallar
+     */
+    public double[] calculateOrNaN(FractionView view, EvaluationWorkspace workspace){
+        return fromCorrelationOrNaN(correlation(view, workspace), workspace);
+    }
+
+    private static double[][] correlation(FractionView view, EvaluationWorkspace workspace) {
+        int factors = view.factors();
+        workspace.checkFactors(factors);
+        long[] sums = workspace.sums;
+        long[][] crossSums = workspace.crossSums;
+        int[] index = workspace.levelIndex;
+        Arrays.fill(sums, 0);
+        for (int k = 0; k < factors; k++) {
+            Arrays.fill(crossSums[k], 0);
+            index[k] = view.firstLevelIndex(k);
+        }
+
+        for (int r = 0; r < view.rows(); r++) {
+            for (int k = 0; k < factors; k++) {
+                long value = index[k] + 1;
+                sums[k] += value;
+                for (int l = k; l < factors; l++) {
+                    crossSums[k][l] += value * (index[l] + 1);
+                }
+            }
+            for (int k = 0; k < factors; k++) {
+                if (++index[k] == view.levels(k)) index[k] = 0;
+            }
+        }
+
+        return correlationFromSums(view.rows(), sums, crossSums, workspace.correlation, workspace.deviations);
+    }
+
+    /**
+     * Calcula los VIFs de una fracción compacta a partir de las sumas enteras de sus columnas
+     */
+    public double[] calculate(LevelMatrix fraction){
+        return calculate(fraction, new EvaluationWorkspace(fraction.factors()));
+    }
+
+    /**
+     * Igual que calculate, pero los intermedios se escriben en el workspace
+     */
+    public double[] calculate(LevelMatrix fraction, EvaluationWorkspace workspace){
+        int factors = fraction.factors();
+        workspace.checkFactors(factors);
+        byte[] cells = fraction.cells();
+        long[] sums = workspace.sums;
+        long[][] crossSums = workspace.crossSums;
+        Arrays.fill(sums, 0);
+        for (int k = 0; k < factors; k++) {
+            Arrays.fill(crossSums[k], 0);
+        }
+
+        for (int base = 0; base < cells.length; base += factors) {
+            for (int k = 0; k < factors; k++) {
+                long value = cells[base + k] & 0xFF;
+                sums[k] += value;
+                for (int l = k; l < factors; l++) {
+                    crossSums[k][l] += value * (cells[base + l] & 0xFF);
+                }
+            }
+        }
+
+        double[][] r2 = correlationFromSums(fraction.rows(), sums, crossSums, workspace.correlation, workspace.deviations);
+        return fromCorrelation(r2, workspace);
+    }
+
+    /**
+     * Calcula los VIFs a partir de una matriz de correlaciones ya construida
+     * @param r2 matriz de correlaciones de la fracción
+     * @return diagonal de la inversa
+     */
+    public double[] fromCorrelation(double[][] r2){
+        return fromCorrelation(r2, new EvaluationWorkspace(r2.length));
+    }
+
+    /**
+     * Igual que fromCorrelation, pero la factorización se hace en el workspace;
+     * sólo se reserva el arreglo de VIFs que se devuelve
+     */
+    public double[] fromCorrelation(double[][] r2, EvaluationWorkspace workspace){
+        double[] vifs = new double[r2.length];
+        if (!inverseDiagonal(r2, workspace, vifs)) {
             throw new RuntimeException("No se logró calcular la inversa");
         }
-        return MatlabFunctions.diag(r2Inverse);
+        return vifs;
+    }
+
+    /**
+     * Igual que fromCorrelation, pero si la matriz es singular devuelve VIFs NaN en lugar de fallar.
+     * Útil al recorrer muchas fracciones, donde una singular sólo debe quedar al final.
+     */
+    public double[] fromCorrelationOrNaN(double[][] r2){
+        return fromCorrelationOrNaN(r2, new EvaluationWorkspace(r2.length));
+    }
+
+    /**
+     * Igual que fromCorrelationOrNaN, pero la factorización se hace en el workspace
+     */
+    public double[] fromCorrelationOrNaN(double[][] r2, EvaluationWorkspace workspace){
+        double[] vifs = new double[r2.length];
+        if (!inverseDiagonal(r2, workspace, vifs)) {
+            Arrays.fill(vifs, Double.NaN);
+        }
+        return vifs;
+    }
+
+    /**
+     * Diagonal de la inversa de la matriz de correlaciones.
+     * Intenta primero la factorización LDLᵀ, válida si la matriz es simétrica definida positiva;
+     * si no lo es (pivote negativo o NaN) recurre a la inversa completa de MatlabFunctions.inv.
+     * @return false si la matriz es singular
+     */
+    private static boolean inverseDiagonal(double[][] r2, EvaluationWorkspace workspace, double[] diagonal) {
+        workspace.checkFactors(r2.length);
+        int status = ldltInverseDiagonal(r2, workspace, diagonal);
+        if (status != NOT_POSITIVE_DEFINITE) {
+            return status == FACTORED;
+        }
+        double[][] r2Inverse = MatlabFunctions.inv(r2, workspace.augmented(), workspace.inverse());
+        if (r2Inverse == null) {
+            return false;
+        }
+        MatlabFunctions.diag(r2Inverse, diagonal);
+        return true;
+    }
+
+    /**
+     * Factoriza R = L·D·Lᵀ (L triangular inferior unitaria) y obtiene sólo la diagonal de R⁻¹:
+     * (R⁻¹)_ii = Σ_j (L⁻¹)_ji² / d_j, sin construir la inversa completa.
+     * Cada pivote d_j es la varianza de la columna j que no explican las anteriores,
+     * así que un pivote casi nulo indica una matriz casi singular.
+     * @return FACTORED, SINGULAR o NOT_POSITIVE_DEFINITE si se debe usar la inversa completa
+     */
+    private static int ldltInverseDiagonal(double[][] r2, EvaluationWorkspace workspace, double[] diagonal) {
+        int n = r2.length;
+        double[][] lower = workspace.lower;
+        double[] pivots = workspace.pivots;
+
+        for (int j = 0; j < n; j++) {
+            if (r2[j].length != n) {
+                throw new IllegalArgumentException("Matriz debe ser cuadrada");
+            }
+            double[] row = lower[j];
+            double pivot = r2[j][j];
+            for (int m = 0; m < j; m++) {
+                // L_jm = (R_jm - Σ_{p<m} L_jp·d_p·L_mp) / d_m
+                double value = r2[j][m];
+                double[] rowM = lower[m];
+                for (int p = 0; p < m; p++) {
+                    value -= row[p] * pivots[p] * rowM[p];
+                }
+                value /= pivots[m];
+                row[m] = value;
+                pivot -= value * value * pivots[m];
+            }
+            if (Double.isNaN(pivot) || pivot < -EPSILON) {
+                return NOT_POSITIVE_DEFINITE;
+            }
+            if (pivot < EPSILON) {
+                return SINGULAR;
+            }
+            pivots[j] = pivot;
+        }
+
+        // Columna i de L⁻¹: resolver L·x = e_i por sustitución hacia adelante
+        double[] x = workspace.column;
+        for (int i = 0; i < n; i++) {
+            x[i] = 1.0;
+            double sum = 1.0 / pivots[i];
+            for (int j = i + 1; j < n; j++) {
+                double value = 0;
+                double[] row = lower[j];
+                for (int m = i; m < j; m++) {
+                    value -= row[m] * x[m];
+                }
+                x[j] = value;
+                sum += value * value / pivots[j];
+            }
+            diagonal[i] = sum;
+        }
+        return FACTORED;
+    }
+
+    /**
+     * Construye la matriz de correlaciones, equivalente a corrcoef, a partir de sumas de columnas
+     * @param rows número de filas
+     * @param sums suma de cada columna
+     * @param crossSums productos cruzados Σ x_k * x_l, sólo se usa la parte con k &lt;= l
+     */
+    public static double[][] correlationFromSums(long rows, long[] sums, long[][] crossSums) {
+        int factors = sums.length;
+        return correlationFromSums(rows, sums, crossSums, new double[factors][factors], new double[factors]);
+    }
+
+    /**
+     * Igual que correlationFromSums, pero escribe en buffers del llamador
+     * @param corr destino factores x factores
+     * @param deviations buffer de tamaño factores
+     * @return corr
+     */
+    public static double[][] correlationFromSums(long rows, long[] sums, long[][] crossSums,
+                                                 double[][] corr, double[] deviations) {
+        int factors = sums.length;
+
+        for (int k = 0; k < factors; k++) {
+            deviations[k] = Math.sqrt((double) (rows * crossSums[k][k] - sums[k] * sums[k]));
+        }
+
+        for (int k = 0; k < factors; k++) {
+            corr[k][k] = 1.0;
+            for (int l = k + 1; l < factors; l++) {
+                double value = Double.NaN;
+                if (deviations[k] != 0 && deviations[l] != 0) {
+                    value = (rows * crossSums[k][l] - sums[k] * sums[l]) / (deviations[k] * deviations[l]);
+                }
+                corr[k][l] = value;
+                corr[l][k] = value;
+            }
+        }
+
+        return corr;
     }
 
 }
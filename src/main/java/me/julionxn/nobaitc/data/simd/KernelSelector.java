@@ -0,0 +1,30 @@
+package me.julionxn.nobaitc.data.simd;
+
+/**
+ * Elige la implementación de {@link Kernels} una sola vez, al cargar la clase.
+ */
+final class KernelSelector {
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final String SIMD_CLASS = "me.julionxn.nobaitc.data.simd.VectorKernels";
+
+    static final Kernels SIMD = loadSimd();
+    static final Kernels ACTIVE = SIMD != null && !"false".equalsIgnoreCase(System.getProperty("nobaitc.simd"))
+            ? SIMD
+            : ScalarKernels.INSTANCE;
+
+    private KernelSelector() {
+    }
+
+    private static Kernels loadSimd() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            return null;
+        }
+        try {
+            // Se carga por nombre para que, sin el módulo, nunca se resuelvan las clases del Vector API
+            return (Kernels) Class.forName(SIMD_CLASS).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+}
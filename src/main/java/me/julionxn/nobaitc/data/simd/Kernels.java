@@ -0,0 +1,64 @@
+package me.julionxn.nobaitc.data.simd;
+
+import java.util.Optional;
+
+/**
+ * Bucles internos numéricos que admiten vectorización: sumas de columnas, covarianzas,
+ * conteo de coincidencias entre filas y producto elemento a elemento.
+ * <p>
+ * Hay dos implementaciones: la escalar, que reproduce exactamente los bucles originales,
+ * y una SIMD con {@code jdk.incubator.vector}. La SIMD sólo se usa si el módulo está en la
+ * capa de arranque (JVM iniciada con {@code --add-modules jdk.incubator.vector}) y no se
+ * desactivó con {@code -Dnobaitc.simd=false}. Las reducciones en punto flotante de la versión
+ * SIMD suman en otro orden, así que pueden diferir de la escalar en las últimas cifras.
+ */
+public interface Kernels {
+
+    /**
+     * Σ a[from .. from + length)
+     */
+    double sum(double[] a, int from, int length);
+
+    /**
+     * Σ (a[i] - mean)² sobre [from, from + length)
+     */
+    double sumSquaredDeviations(double[] a, int from, int length, double mean);
+
+    /**
+     * Σ (x[xFrom + i] - xMean) * (y[yFrom + i] - yMean) para i en [0, length)
+     */
+    double centeredDot(double[] x, int xFrom, double[] y, int yFrom, int length, double xMean, double yMean);
+
+    /**
+     * Número de posiciones i en [0, length) con a[i] == b[i]
+     */
+    int countEqual(double[] a, double[] b, int length);
+
+    /**
+     * out[i] = a[i] * b[i] para i en [0, length)
+     */
+    void multiply(double[] a, double[] b, double[] out, int length);
+
+    /**
+     * Nombre de la implementación, para registros y benchmarks
+     */
+    String name();
+
+    /**
+     * Implementación elegida al iniciar: SIMD si está disponible, escalar en otro caso
+     */
+    static Kernels active() {
+        return KernelSelector.ACTIVE;
+    }
+
+    static Kernels scalar() {
+        return ScalarKernels.INSTANCE;
+    }
+
+    /**
+     * @return la implementación SIMD, vacía si el módulo del Vector API no está cargado
+     */
+    static Optional<Kernels> simd() {
+        return Optional.ofNullable(KernelSelector.SIMD);
+    }
+}
@@ -0,0 +1,63 @@
+package me.julionxn.nobaitc.data.simd;
+
+/**
+ * Bucles escalares, en el mismo orden de operaciones que el código original.
+ */
+final class ScalarKernels implements Kernels {
+
+    static final ScalarKernels INSTANCE = new ScalarKernels();
+
+    private ScalarKernels() {
+    }
+
+    @Override
+    public double sum(double[] a, int from, int length) {
+        double sum = 0;
+        for (int i = from, end = from + length; i < end; i++) {
+            sum += a[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public double sumSquaredDeviations(double[] a, int from, int length, double mean) {
+        double sum = 0;
+        for (int i = from, end = from + length; i < end; i++) {
+            double diff = a[i] - mean;
+            sum += diff * diff;
+        }
+        return sum;
+    }
+
+    @Override
+    public double centeredDot(double[] x, int xFrom, double[] y, int yFrom, int length, double xMean, double yMean) {
+        double sum = 0;
+        for (int i = 0; i < length; i++) {
+            sum += (x[xFrom + i] - xMean) * (y[yFrom + i] - yMean);
+        }
+        return sum;
+    }
+
+    @Override
+    public int countEqual(double[] a, double[] b, int length) {
+        int matches = 0;
+        for (int i = 0; i < length; i++) {
+            if (a[i] == b[i]) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    @Override
+    public void multiply(double[] a, double[] b, double[] out, int length) {
+        for (int i = 0; i < length; i++) {
+            out[i] = a[i] * b[i];
+        }
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+}
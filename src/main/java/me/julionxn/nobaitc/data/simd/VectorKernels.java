@@ -0,0 +1,99 @@
+package me.julionxn.nobaitc.data.simd;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Bucles con el Vector API. Usa el ancho preferido de la plataforma (4 doubles con AVX2,
+ * 8 con AVX-512) y termina la cola que no llena un vector con el bucle escalar.
+ * Sólo se instancia desde {@link KernelSelector} cuando el módulo está disponible.
+ */
+final class VectorKernels implements Kernels {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public double sum(double[] a, int from, int length) {
+        int upper = SPECIES.loopBound(length);
+        DoubleVector acc = DoubleVector.zero(SPECIES);
+        int i = 0;
+        for (; i < upper; i += SPECIES.length()) {
+            acc = acc.add(DoubleVector.fromArray(SPECIES, a, from + i));
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            sum += a[from + i];
+        }
+        return sum;
+    }
+
+    @Override
+    public double sumSquaredDeviations(double[] a, int from, int length, double mean) {
+        int upper = SPECIES.loopBound(length);
+        DoubleVector acc = DoubleVector.zero(SPECIES);
+        int i = 0;
+        for (; i < upper; i += SPECIES.length()) {
+            DoubleVector diff = DoubleVector.fromArray(SPECIES, a, from + i).sub(mean);
+            acc = diff.fma(diff, acc);
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            double diff = a[from + i] - mean;
+            sum += diff * diff;
+        }
+        return sum;
+    }
+
+    @Override
+    public double centeredDot(double[] x, int xFrom, double[] y, int yFrom, int length, double xMean, double yMean) {
+        int upper = SPECIES.loopBound(length);
+        DoubleVector acc = DoubleVector.zero(SPECIES);
+        int i = 0;
+        for (; i < upper; i += SPECIES.length()) {
+            DoubleVector dx = DoubleVector.fromArray(SPECIES, x, xFrom + i).sub(xMean);
+            DoubleVector dy = DoubleVector.fromArray(SPECIES, y, yFrom + i).sub(yMean);
+            acc = dx.fma(dy, acc);
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            sum += (x[xFrom + i] - xMean) * (y[yFrom + i] - yMean);
+        }
+        return sum;
+    }
+
+    @Override
+    public int countEqual(double[] a, double[] b, int length) {
+        int upper = SPECIES.loopBound(length);
+        int matches = 0;
+        int i = 0;
+        for (; i < upper; i += SPECIES.length()) {
+            DoubleVector va = DoubleVector.fromArray(SPECIES, a, i);
+            DoubleVector vb = DoubleVector.fromArray(SPECIES, b, i);
+            matches += va.compare(VectorOperators.EQ, vb).trueCount();
+        }
+        for (; i < length; i++) {
+            if (a[i] == b[i]) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    @Override
+    public void multiply(double[] a, double[] b, double[] out, int length) {
+        int upper = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < upper; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, a, i).mul(DoubleVector.fromArray(SPECIES, b, i)).intoArray(out, i);
+        }
+        for (; i < length; i++) {
+            out[i] = a[i] * b[i];
+        }
+    }
+
+    @Override
+    public String name() {
+        return "simd-" + SPECIES.vectorBitSize();
+    }
+}
@@ -2,12 +2,14 @@ module me.julionxn.nobaitc {
     requires javafx.controls;
     requires javafx.fxml;
     requires java.desktop;
+    requires jdk.jfr;
+    requires jdk.management;
+    requires static jdk.incubator.vector;
     requires org.controlsfx.controls;
     requires static lombok;
 
     exports me.julionxn.nobaitc;
     exports me.julionxn.nobaitc.controllers;
-    exports me.julionxn.nobaitc.models;
     exports me.julionxn.nobaitc.data;
 
     opens me.julionxn.nobaitc to javafx.fxml;
@@ -0,0 +1,157 @@
+package me.julionxn.nobaitc.data;
+
+/**
+ * Copia de los kernels originales de {@link MatlabFunctions} sobre double[][], antes de los cambios
+ * de rendimiento. Sirve como referencia en las pruebas.
+ */
+public final class BaselineMatlab {
+
+    private static final double EPSILON = 1e-10;
+
+    private BaselineMatlab() {
+    }
+
+    public static double[][] transpose(double[][] matrix) {
+        int rows = matrix.length;
+        int cols = matrix[0].length;
+        double[][] result = new double[cols][rows];
+
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                result[j][i] = matrix[i][j];
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Producto ingenuo i-j-k
+     */
+    public static double[][] multiply(double[][] a, double[][] b) {
+        int n = a.length;
+        int m = b[0].length;
+        int inner = b.length;
+        double[][] result = new double[n][m];
+
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < m; j++) {
+                double sum = 0;
+                for (int k = 0; k < inner; k++) {
+                    sum += a[i][k] * b[k][j];
+                }
+                result[i][j] = sum;
+            }
+        }
+
+        return result;
+    }
+
+    public static double[][] corrcoef(double[][] matrix) {
+        int rows = matrix.length;
+        int cols = matrix[0].length;
+        double[][] corrMatrix = new double[cols][cols];
+
+        double[] means = new double[cols];
+        double[] stdDevs = new double[cols];
+
+        for (int j = 0; j < cols; j++) {
+            double sum = 0;
+            for (double[] row : matrix) {
+                sum += row[j];
+            }
+            means[j] = sum / rows;
+            double variance = 0;
+            for (double[] row : matrix) {
+                double diff = row[j] - means[j];
+                variance += diff * diff;
+            }
+            stdDevs[j] = Math.sqrt(variance / rows);
+        }
+
+        for (int i = 0; i < cols; i++) {
+            corrMatrix[i][i] = 1.0;
+
+            for (int j = i + 1; j < cols; j++) {
+                double corr;
+                if (stdDevs[i] == 0 || stdDevs[j] == 0) {
+                    corr = Double.NaN;
+                } else {
+                    double covariance = 0;
+                    for (double[] row : matrix) {
+                        covariance += (row[i] - means[i]) * (row[j] - means[j]);
+                    }
+                    corr = covariance / (rows * stdDevs[i] * stdDevs[j]);
+                }
+                corrMatrix[i][j] = corr;
+                corrMatrix[j][i] = corr;
+            }
+        }
+
+        return corrMatrix;
+    }
+
+    /**
+     * Gauss-Jordan con pivoteo parcial
+     * @return la inversa, o null si la matriz es singular
+     */
+    public static double[][] inv(double[][] matrix) {
+        int n = matrix.length;
+
+        double[][] augmented = new double[n][2 * n];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(matrix[i], 0, augmented[i], 0, n);
+            augmented[i][n + i] = 1.0;
+        }
+
+        for (int i = 0; i < n; i++) {
+            int maxRow = i;
+            double maxVal = Math.abs(augmented[i][i]);
+            for (int k = i + 1; k < n; k++) {
+                double val = Math.abs(augmented[k][i]);
+                if (val > maxVal) {
+                    maxVal = val;
+                    maxRow = k;
+                }
+            }
+            if (maxRow != i) {
+                double[] temp = augmented[i];
+                augmented[i] = augmented[maxRow];
+                augmented[maxRow] = temp;
+            }
+            if (Math.abs(augmented[i][i]) < EPSILON) {
+                return null;
+            }
+            double pivot = augmented[i][i];
+            for (int j = 0; j < 2 * n; j++) {
+                augmented[i][j] /= pivot;
+            }
+            for (int k = 0; k < n; k++) {
+                if (k != i) {
+                    double factor = augmented[k][i];
+                    for (int j = 0; j < 2 * n; j++) {
+                        augmented[k][j] -= factor * augmented[i][j];
+                    }
+                }
+            }
+        }
+
+        double[][] inverse = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(augmented[i], n, inverse[i], 0, n);
+        }
+
+        return inverse;
+    }
+
+    public static double[] diag(double[][] matrix) {
+        int n = Math.min(matrix.length, matrix[0].length);
+        double[] result = new double[n];
+
+        for (int i = 0; i < n; i++) {
+            result[i] = matrix[i][i];
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,160 @@
+package me.julionxn.nobaitc.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class MatrixTest {
+
+    private static final double TOLERANCE = 1e-9;
+
+    /**
+     * Formas no cuadradas y lados que no son múltiplo del bloque de 64
+     */
+    private static final int[][] SHAPES = {
+            {1, 1}, {1, 7}, {7, 1}, {3, 5}, {63, 64}, {64, 64}, {65, 130}, {130, 63}, {200, 7}, {129, 129},
+    };
+
+    private final Random random = new Random(15);
+
+    @Test
+    void transposeMatchesBaseline() {
+        for (int[] shape : SHAPES) {
+            double[][] a = random(shape[0], shape[1]);
+            String message = shape[0] + "x" + shape[1];
+
+            assertMatrix(BaselineMatlab.transpose(a), Matrix.of(a).transpose(), message);
+            assertMatrix(BaselineMatlab.transpose(a), Matrix.columnMajorOf(a).transpose(), message);
+            assertMatrix(BaselineMatlab.transpose(a), Matrix.of(a).transposeView(), message);
+            assertMatrix(a, Matrix.of(a).transposeView().transpose(), message);
+        }
+    }
+
+    @Test
+    void multiplyMatchesBaseline() {
+        int[] inners = {1, 5, 64, 65, 131};
+        for (int[] shape : SHAPES) {
+            for (int inner : inners) {
+                double[][] a = random(shape[0], inner);
+                double[][] b = random(inner, shape[1]);
+                double[][] expected = BaselineMatlab.multiply(a, b);
+                String message = shape[0] + "x" + inner + " · " + inner + "x" + shape[1];
+
+                assertMatrix(expected, Matrix.of(a).multiply(Matrix.of(b)), message);
+                assertMatrix(expected, Matrix.columnMajorOf(a).multiply(Matrix.columnMajorOf(b)), message);
+                // Aᵀᵀ·B con Aᵀ como vista: los strides de la vista llegan al kernel por bloques
+                Matrix aView = Matrix.of(BaselineMatlab.transpose(a)).transposeView();
+                assertMatrix(expected, aView.multiply(Matrix.of(b)), message);
+            }
+        }
+    }
+
+    /**
+     * Vistas sin copia con offset y strides distintos de los de una matriz compacta
+     */
+    @Test
+    void stridedViewsMatchBaseline() {
+        double[][] big = random(150, 90);
+        Matrix byRows = Matrix.of(big);
+        Matrix byColumns = Matrix.columnMajorOf(big);
+        int row = 17, col = 5, height = 67, width = 70;
+        double[][] block = slice(big, row, col, height, width);
+
+        for (Matrix source : new Matrix[]{byRows, byColumns}) {
+            Matrix view = source.submatrix(row, col, height, width);
+            assertMatrix(block, view, "submatrix");
+            assertMatrix(BaselineMatlab.transpose(block), view.transpose(), "submatrix transpose");
+            assertMatrix(BaselineMatlab.transpose(block), view.transposeView(), "submatrix transposeView");
+
+            double[][] right = random(width, 33);
+            assertMatrix(BaselineMatlab.multiply(block, right), view.multiply(Matrix.of(right)), "submatrix multiply");
+            assertMatrix(BaselineMatlab.multiply(BaselineMatlab.transpose(block), block),
+                    view.transposeView().multiply(view), "Aᵀ·A");
+
+            assertMatrix(BaselineMatlab.corrcoef(block), view.corrcoef(), "submatrix corrcoef");
+            assertMatrix(slice(big, 40, 0, 1, 90), source.row(40), "row");
+            assertMatrix(slice(big, 0, 61, 150, 1), source.column(61), "column");
+            assertMatrix(slice(big, 3, 61, 1, 1), source.column(61).row(3), "column row");
+        }
+    }
+
+    @Test
+    void corrcoefMatchesBaseline() {
+        int[][] shapes = {{2, 1}, {5, 3}, {7, 7}, {100, 4}, {257, 13}, {1000, 9}};
+        for (int[] shape : shapes) {
+            double[][] a = random(shape[0], shape[1]);
+            String message = shape[0] + "x" + shape[1];
+            assertMatrix(BaselineMatlab.corrcoef(a), Matrix.of(a).corrcoef(), message);
+            assertMatrix(BaselineMatlab.corrcoef(a), Matrix.columnMajorOf(a).corrcoef(), message);
+            assertMatrix(BaselineMatlab.corrcoef(a), MatlabFunctions.corrcoef(a), message);
+        }
+
+        // Una columna constante deja NaN en su fila y columna, salvo la diagonal
+        double[][] constant = random(40, 4);
+        for (double[] row : constant) {
+            row[2] = 3.0;
+        }
+        assertMatrix(BaselineMatlab.corrcoef(constant), Matrix.of(constant).corrcoef(), "columna constante");
+    }
+
+    @Test
+    void invMatchesBaseline() {
+        for (int n : new int[]{1, 2, 5, 13, 64, 65, 100}) {
+            double[][] a = random(n, n);
+            for (int i = 0; i < n; i++) {
+                a[i][i] += n;
+            }
+            String message = "n = " + n;
+            assertMatrix(BaselineMatlab.inv(a), Matrix.of(a).inv(), message);
+            assertMatrix(BaselineMatlab.inv(a), Matrix.columnMajorOf(a).inv(), message);
+            assertMatrix(BaselineMatlab.inv(BaselineMatlab.transpose(a)), Matrix.of(a).transposeView().inv(), message);
+            assertMatrix(BaselineMatlab.inv(a), MatlabFunctions.inv(a), message);
+        }
+
+        double[][] singular = {{1, 2, 3}, {2, 4, 6}, {1, 0, 1}};
+        assertNull(BaselineMatlab.inv(singular));
+        assertNull(Matrix.of(singular).inv());
+        assertNull(MatlabFunctions.inv(singular));
+    }
+
+    private double[][] random(int rows, int cols) {
+        double[][] result = new double[rows][cols];
+        for (double[] row : result) {
+            for (int j = 0; j < cols; j++) {
+                row[j] = random.nextDouble() * 2 - 1;
+            }
+        }
+        return result;
+    }
+
+    private static double[][] slice(double[][] matrix, int row, int col, int height, int width) {
+        double[][] result = new double[height][width];
+        for (int i = 0; i < height; i++) {
+            System.arraycopy(matrix[row + i], col, result[i], 0, width);
+        }
+        return result;
+    }
+
+    private static void assertMatrix(double[][] expected, Matrix actual, String message) {
+        assertMatrix(expected, actual.toArray(), message);
+    }
+
+    private static void assertMatrix(double[][] expected, double[][] actual, String message) {
+        assertEquals(expected.length, actual.length, message);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i].length, actual[i].length, message);
+            for (int j = 0; j < expected[i].length; j++) {
+                double value = expected[i][j];
+                if (Double.isNaN(value)) {
+                    assertEquals(value, actual[i][j], message + " en (" + i + ", " + j + ")");
+                    continue;
+                }
+                assertEquals(value, actual[i][j], TOLERANCE * Math.max(1, Math.abs(value)),
+                        message + " en (" + i + ", " + j + ")");
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package me.julionxn.nobaitc.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SeededSamplerTest {
+
+    /**
+     * Rango, cantidad: los primeros caen en Fisher–Yates (rango ≤ 4·cantidad), los demás en Floyd
+     */
+    private static final long[][] CASES = {
+            {1, 1}, {10, 10}, {100, 30}, {400, 100},
+            {401, 100}, {1000, 3}, {1_000_000, 1000},
+    };
+
+    @Test
+    void sameSeedGivesSameDraw() {
+        for (long[] c : CASES) {
+            long[] first = new SeededSampler(42).sample(1, c[0], (int) c[1]);
+            long[] second = new SeededSampler(42).sample(1, c[0], (int) c[1]);
+            assertArrayEquals(first, second, "rango " + c[0] + ", " + c[1] + " números");
+        }
+        assertArrayEquals(new SeededSampler(7).sample(1, 500, 20), new SeededSampler(7).sample(1, 500, 20));
+        assertFalse(Arrays.equals(new SeededSampler(42).sample(1L, 1_000_000, 50),
+                new SeededSampler(43).sample(1L, 1_000_000, 50)));
+    }
+
+    @Test
+    void samplesAreDistinctAndInRange() {
+        SeededSampler sampler = new SeededSampler(20);
+        for (long[] c : CASES) {
+            for (long min : new long[]{1, -50, 1_000_000_007L}) {
+                long max = min + c[0] - 1;
+                long[] values = sampler.sample(min, max, (int) c[1]);
+                assertSample(values, min, max, (int) c[1], "rango " + c[0] + " desde " + min);
+            }
+        }
+
+        // Pedir todo el rango da una permutación
+        long[] all = sampler.sample(1L, 64, 64);
+        long[] sorted = all.clone();
+        Arrays.sort(sorted);
+        for (int i = 0; i < sorted.length; i++) {
+            assertEquals(i + 1, sorted[i]);
+        }
+        assertEquals(0, sampler.sample(1, 10, 0).length);
+    }
+
+    /**
+     * Cada valor debe salir con frecuencia parecida en los dos caminos
+     */
+    @Test
+    void bothPathsAreRoughlyUniform() {
+        SeededSampler sampler = new SeededSampler(5);
+        for (int count : new int[]{2, 5}) {
+            // Rango 10: con 2 números va por Floyd, con 5 por Fisher–Yates
+            int[] hits = new int[10];
+            int draws = 20_000;
+            for (int i = 0; i < draws; i++) {
+                for (int value : sampler.sample(0, 9, count)) {
+                    hits[value]++;
+                }
+            }
+            double expected = (double) draws * count / 10;
+            for (int value = 0; value < hits.length; value++) {
+                assertEquals(expected, hits[value], expected * 0.05, "valor " + value + " con " + count);
+            }
+        }
+    }
+
+    @Test
+    void substreamsAreIndependent() {
+        SeededSampler parent = new SeededSampler(99);
+        long[] before = parent.substream(3).sample(1L, 1_000_000, 20);
+
+        // Consumir del padre no cambia sus subflujos
+        parent.sample(1L, 1_000_000, 500);
+        assertArrayEquals(before, parent.substream(3).sample(1L, 1_000_000, 20));
+        assertEquals(parent.substream(3).seed(), new SeededSampler(99).substream(3).seed());
+
+        Set<Long> seeds = new HashSet<>();
+        seeds.add(parent.seed());
+        for (long index = 0; index < 1000; index++) {
+            assertTrue(seeds.add(parent.substream(index).seed()), "subflujo " + index);
+        }
+        assertFalse(Arrays.equals(parent.substream(0).sample(1L, 1_000_000, 20),
+                parent.substream(1).sample(1L, 1_000_000, 20)));
+        assertFalse(Arrays.equals(new SeededSampler(99).sample(1L, 1_000_000, 20),
+                parent.substream(0).sample(1L, 1_000_000, 20)));
+    }
+
+    /**
+     * Los inicios de un diseño con TR = 33426748355 no caben en int
+     */
+    @Test
+    void rangeAboveIntegerMaxValue() {
+        long tr = 33_426_748_355L;
+        SeededSampler sampler = new SeededSampler(21);
+        long[] starts = sampler.sample(1, tr, 2000);
+        assertSample(starts, 1, tr, 2000, "TR " + tr);
+        long aboveInt = Arrays.stream(starts).filter(start -> start > Integer.MAX_VALUE).count();
+        assertTrue(aboveInt > 1800, aboveInt + " inicios mayores que Integer.MAX_VALUE");
+
+        assertArrayEquals(starts, new SeededSampler(21).sample(1, tr, 2000));
+        assertSample(sampler.sample(Long.MAX_VALUE - 99, Long.MAX_VALUE, 60), Long.MAX_VALUE - 99, Long.MAX_VALUE,
+                60, "al final de long");
+    }
+
+    @Test
+    void invalidRequestsAreRejected() {
+        SeededSampler sampler = new SeededSampler(1);
+        assertThrows(IllegalArgumentException.class, () -> sampler.sample(1, 10, 11));
+        assertThrows(IllegalArgumentException.class, () -> sampler.sample(1, 10, -1));
+        assertThrows(IllegalArgumentException.class, () -> sampler.sample(10, 1, 1));
+        // Un rango que no cabe en long
+        assertThrows(IllegalArgumentException.class, () -> sampler.sample(Long.MIN_VALUE, Long.MAX_VALUE, 1));
+    }
+
+    private static void assertSample(long[] values, long min, long max, int count, String message) {
+        assertEquals(count, values.length, message);
+        Set<Long> seen = new HashSet<>();
+        for (long value : values) {
+            assertTrue(value >= min && value <= max, message + ": " + value + " fuera de rango");
+            assertTrue(seen.add(value), message + ": " + value + " repetido");
+        }
+    }
+}
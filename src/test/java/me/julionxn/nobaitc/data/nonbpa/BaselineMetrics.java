@@ -0,0 +1,61 @@
+package me.julionxn.nobaitc.data.nonbpa;
+
+import me.julionxn.nobaitc.data.BaselineMatlab;
+
+/**
+ * Cálculos originales de GBM, J2 y VIFs sobre la fracción como double[][], usados como referencia
+ */
+final class BaselineMetrics {
+
+    private BaselineMetrics() {
+    }
+
+    static double gbm(double[][] fraction, int[] design) {
+        int rows = fraction.length;
+        double gbmTotal = 0;
+        for (int factor = 0; factor < design.length; factor++) {
+            int levels = design[factor];
+            double expectedCount = (double) rows / levels;
+            for (int level = 1; level <= levels; level++) {
+                int actualCount = 0;
+                for (double[] row : fraction) {
+                    if (row[factor] == level) {
+                        actualCount++;
+                    }
+                }
+                double diff = actualCount - expectedCount;
+                gbmTotal += diff * diff;
+            }
+        }
+        return gbmTotal;
+    }
+
+    /**
+     * J2 comparando cada par de filas, O(filas² · factores)
+     */
+    static double j2(double[][] fraction) {
+        int rows = fraction.length;
+        int factors = fraction[0].length;
+        double j2Total = 0;
+        for (int i = 0; i < rows - 1; i++) {
+            for (int j = i + 1; j < rows; j++) {
+                int matches = 0;
+                for (int k = 0; k < factors; k++) {
+                    if (fraction[i][k] == fraction[j][k]) {
+                        matches++;
+                    }
+                }
+                j2Total += matches * matches;
+            }
+        }
+        return j2Total;
+    }
+
+    /**
+     * Diagonal de inv(corrcoef), o null si la matriz de correlaciones es singular
+     */
+    static double[] vifs(double[][] fraction) {
+        double[][] inverse = BaselineMatlab.inv(BaselineMatlab.corrcoef(fraction));
+        return inverse == null ? null : BaselineMatlab.diag(inverse);
+    }
+}
@@ -0,0 +1,195 @@
+package me.julionxn.nobaitc.data.nonbpa;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FractionStoreTest {
+
+    private static final int[] DESIGN = {3, 4, 5};
+    private static final int FRACTION_SIZE = 11;
+    private static final long TR = 60;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void emptyStoreRoundTrips() throws IOException {
+        for (boolean withLevels : new boolean[]{false, true}) {
+            assertRoundTrip(scores(0), withLevels);
+        }
+    }
+
+    /**
+     * Un bloque exactamente lleno, uno lleno más uno parcial y varios bloques con el último de una fila
+     */
+    @Test
+    void storeWithoutLevelsRoundTripsAcrossBlocks() throws IOException {
+        int blockRows = FractionStore.blockRows(DESIGN.length, FRACTION_SIZE, false);
+        for (int count : new int[]{1, 37, blockRows, blockRows + 37, 2 * blockRows + 1}) {
+            assertRoundTrip(scores(count), false);
+        }
+    }
+
+    @Test
+    void storeWithLevelsRoundTrips() throws IOException {
+        for (int count : new int[]{1, 37, 500}) {
+            assertRoundTrip(scores(count), true);
+        }
+    }
+
+    /**
+     * Con niveles los bloques son más chicos; un diseño con fracciones grandes llena uno sin escribir demasiado
+     */
+    @Test
+    void storeWithLevelsRoundTripsAcrossBlocks() throws IOException {
+        int[] design = {11, 13, 17, 19};
+        int fractionSize = 4000;
+        int blockRows = FractionStore.blockRows(design.length, fractionSize, true);
+        assertTrue(blockRows < 5000, "bloque de " + blockRows + " filas");
+
+        Path file = directory.resolve("niveles.nbpa");
+        List<FractionScore> expected = new ArrayList<>();
+        Random random = new Random(25);
+        try (FractionStoreWriter writer = new FractionStoreWriter(file, design, fractionSize, true)) {
+            for (int i = 0; i < blockRows + 3; i++) {
+                FractionScore score = new FractionScore(1 + random.nextInt(46189), i, 2.0 * i, new double[]{1, 2, 3, 4});
+                writer.write(score);
+                expected.add(score);
+            }
+        }
+        try (FractionStore store = FractionStore.open(file)) {
+            assertEquals(expected.size(), store.size());
+            for (int i : new int[]{0, blockRows - 1, blockRows, blockRows + 2}) {
+                FractionScore score = expected.get(i);
+                assertEquals(score.start(), store.start(i));
+                assertEquals(score.gbm(), store.gbm(i));
+                assertArrayEquals(LevelMatrix.of(FractionView.of(design, score.start(), fractionSize)).cells(),
+                        store.levels(i).cells());
+            }
+        }
+    }
+
+    @Test
+    void unclosedWriterIsRejected() throws IOException {
+        int blockRows = FractionStore.blockRows(DESIGN.length, FRACTION_SIZE, false);
+        // Sin ningún bloque escrito y con uno ya escrito en disco
+        for (int count : new int[]{0, 5, blockRows + 5}) {
+            Path file = directory.resolve("abierto-" + count + ".nbpa");
+            FractionStoreWriter writer = new FractionStoreWriter(file, DESIGN, FRACTION_SIZE, false);
+            for (FractionScore score : scores(count)) {
+                writer.write(score);
+            }
+            assertThrows(IOException.class, () -> FractionStore.open(file));
+            writer.close();
+            try (FractionStore store = FractionStore.open(file)) {
+                assertEquals(count, store.size());
+            }
+        }
+    }
+
+    @Test
+    void queriesAfterCloseFail() throws IOException {
+        Path file = write(scores(10), true);
+        FractionStore store = FractionStore.open(file);
+        store.close();
+
+        assertEquals(10, store.size());
+        assertThrows(IllegalStateException.class, () -> store.start(0));
+        assertThrows(IllegalStateException.class, () -> store.gbm(0));
+        assertThrows(IllegalStateException.class, () -> store.vifs(0));
+        assertThrows(IllegalStateException.class, () -> store.score(0));
+        assertThrows(IllegalStateException.class, () -> store.levels(0));
+        assertThrows(IllegalStateException.class, () -> store.top(3, FractionMetric.GBM));
+    }
+
+    private void assertRoundTrip(List<FractionScore> expected, boolean withLevels) throws IOException {
+        Path file = write(expected, withLevels);
+        try (FractionStore store = FractionStore.open(file)) {
+            assertEquals(expected.size(), store.size());
+            assertArrayEquals(DESIGN, store.design());
+            assertEquals(FRACTION_SIZE, store.fractionSize());
+            assertEquals(withLevels, store.hasLevels());
+
+            for (int i = 0; i < expected.size(); i++) {
+                FractionScore score = expected.get(i);
+                String message = "fracción " + i + " de " + expected.size();
+                assertEquals(score.start(), store.start(i), message);
+                assertEquals(score.gbm(), store.gbm(i), message);
+                assertEquals(score.j2(), store.j2(i), message);
+                assertArrayEquals(score.vifs(), store.vifs(i), message);
+                assertEquals(score.maxVif(), store.maxVif(i), message);
+                assertEquals(score.vifs()[2], store.vif(i, 2), message);
+                assertArrayEquals(score.vifs(), store.score(i).vifs(), message);
+                if (withLevels || i % 97 == 0) {
+                    assertArrayEquals(LevelMatrix.of(FractionView.of(DESIGN, score.start(), FRACTION_SIZE)).cells(),
+                            store.levels(i).cells(), message);
+                }
+            }
+            assertThrows(IndexOutOfBoundsException.class, () -> store.start(expected.size()));
+
+            for (FractionMetric metric : FractionMetric.values()) {
+                assertTop(expected, store, metric, FractionThresholds.NONE);
+                assertTop(expected, store, metric, new FractionThresholds(40, 120, 3));
+            }
+        }
+    }
+
+    private static void assertTop(List<FractionScore> expected, FractionStore store, FractionMetric metric,
+                                  FractionThresholds thresholds) {
+        TopKCollector collector = new TopKCollector(7, metric);
+        for (FractionScore score : expected) {
+            if (thresholds.acceptsGbm(score.gbm()) && thresholds.acceptsJ2(score.j2())
+                    && thresholds.acceptsVif(score.maxVif())) {
+                collector.offer(score);
+            }
+        }
+        List<FractionScore> want = collector.toSortedList();
+        List<FractionScore> got = store.top(7, metric, thresholds);
+        assertEquals(want.size(), got.size(), metric.toString());
+        for (int i = 0; i < want.size(); i++) {
+            assertEquals(want.get(i).start(), got.get(i).start(), metric.toString());
+            assertEquals(want.get(i).gbm(), got.get(i).gbm(), metric.toString());
+        }
+    }
+
+    private Path write(List<FractionScore> scores, boolean withLevels) throws IOException {
+        Path file = directory.resolve("fracciones-" + scores.size() + "-" + withLevels + ".nbpa");
+        try (FractionStoreWriter writer = new FractionStoreWriter(file, DESIGN, FRACTION_SIZE, withLevels)) {
+            for (FractionScore score : scores) {
+                writer.write(score);
+            }
+            assertEquals(scores.size(), writer.count());
+        }
+        return file;
+    }
+
+    /**
+     * Métricas sintéticas, con algunos VIFs NaN como los de las ventanas singulares
+     */
+    private static List<FractionScore> scores(int count) {
+        Random random = new Random(count);
+        List<FractionScore> scores = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            double[] vifs = new double[DESIGN.length];
+            for (int k = 0; k < vifs.length; k++) {
+                vifs[k] = 1 + random.nextDouble() * 4;
+            }
+            if (i % 53 == 7) {
+                vifs[1] = Double.NaN;
+            }
+            scores.add(new FractionScore(1 + i % TR, random.nextInt(100), random.nextInt(300), vifs));
+        }
+        return scores;
+    }
+}
@@ -0,0 +1,314 @@
+package me.julionxn.nobaitc.data.nonbpa;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * El servicio con pool debe dar exactamente lo mismo que el serial: mismos inicios, mismo orden y mismas métricas
+ */
+class NONBPAGeneratorServiceTest {
+
+    private static final int[] DESIGN = {3, 4, 5, 7};
+    private static final int FRACTION_SIZE = 16;
+    private static final long TR = 420;
+
+    /**
+     * TR = 33426748355, más de 15 veces Integer.MAX_VALUE
+     */
+    private static final int[] LARGE_DESIGN = {5, 7, 11, 13, 17, 19, 23, 29, 31};
+    private static final long LARGE_TR = 33_426_748_355L;
+    private static final int LARGE_FRACTION_SIZE = 40;
+    private static final double TOLERANCE = 1e-9;
+
+    private static ForkJoinPool pool;
+    private static NONBPAGeneratorService serial;
+    private static NONBPAGeneratorService parallel;
+
+    @BeforeAll
+    static void createServices() {
+        pool = new ForkJoinPool(4);
+        serial = new NONBPAGeneratorService();
+        parallel = new NONBPAGeneratorService(pool);
+    }
+
+    @AfterAll
+    static void shutdownPool() {
+        pool.shutdown();
+    }
+
+    /**
+     * 400 fracciones cruzan varios lotes de PARALLEL_GRAIN y más de un lote del stream
+     */
+    @Test
+    void randomFractionsMatchSerial() {
+        for (int count : new int[]{1, 200, 400}) {
+            List<FractionResult> expected = serial.generateRandomFractions(DESIGN, FRACTION_SIZE, count, 42L);
+            assertEquals(count, expected.size());
+            assertResults(expected, parallel.generateRandomFractions(DESIGN, FRACTION_SIZE, count, 42L), "lista");
+
+            List<FractionResult> pushed = new ArrayList<>();
+            parallel.generateRandomFractions(DESIGN, FRACTION_SIZE, count, 42L, pushed::add);
+            assertResults(expected, pushed, "consumidor");
+
+            assertResults(expected, parallel.streamRandomFractions(DESIGN, FRACTION_SIZE, count, 42L)
+                    .collect(Collectors.toList()), "stream");
+            assertResults(expected, serial.streamRandomFractions(DESIGN, FRACTION_SIZE, count, 42L)
+                    .collect(Collectors.toList()), "stream serial");
+        }
+    }
+
+    @Test
+    void customFractionsMatchSerial() {
+        Random random = new Random(1);
+        List<Long> starts = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            starts.add(1 + (long) random.nextInt((int) TR));
+        }
+        // Los extremos del rango y un inicio repetido
+        starts.add(1L);
+        starts.add(TR);
+        starts.add(starts.get(0));
+
+        List<FractionResult> expected = serial.generateCustomFractions(DESIGN, FRACTION_SIZE, starts);
+        assertEquals(starts.size(), expected.size());
+        for (int i = 0; i < starts.size(); i++) {
+            assertEquals(starts.get(i), expected.get(i).getStart());
+        }
+        assertResults(expected, parallel.generateCustomFractions(DESIGN, FRACTION_SIZE, starts), "lista");
+
+        List<FractionResult> pushed = new ArrayList<>();
+        parallel.generateCustomFractions(DESIGN, FRACTION_SIZE, starts, pushed::add);
+        assertResults(expected, pushed, "consumidor");
+
+        assertResults(expected, parallel.streamCustomFractions(DESIGN, FRACTION_SIZE, starts)
+                .collect(Collectors.toList()), "stream");
+    }
+
+    /**
+     * Las métricas sin FractionResult salen de la misma evaluación que las fracciones completas
+     */
+    @Test
+    void scoresMatchFractions() {
+        List<FractionResult> expected = serial.generateRandomFractions(DESIGN, FRACTION_SIZE, 300, 7L);
+        List<FractionScore> scores = new ArrayList<>();
+        parallel.scoreRandomFractions(DESIGN, FRACTION_SIZE, 300, 7L, scores::add);
+
+        assertEquals(expected.size(), scores.size());
+        for (int i = 0; i < expected.size(); i++) {
+            FractionResult result = expected.get(i);
+            FractionScore score = scores.get(i);
+            String message = "fracción " + (i + 1);
+            assertEquals(result.getStart(), score.start(), message);
+            assertEquals(result.getGbm(), score.gbm(), message);
+            assertEquals(result.getJ2(), score.j2(), message);
+            assertArrayEquals(result.getVifs(), score.vifs(), message);
+        }
+    }
+
+    @Test
+    void largeDesignRandomFractionsCoverLongStarts() {
+        NONBPAGeneratorService.DesignParameters params = serial.calculateParameters(LARGE_DESIGN);
+        assertEquals(LARGE_TR, params.tr());
+        assertEquals(LARGE_TR, params.lcm());
+        assertTrue(serial.validateDesign(LARGE_DESIGN));
+        assertTrue(serial.validateFractionSize(LARGE_DESIGN, LARGE_FRACTION_SIZE));
+
+        List<FractionResult> expected = serial.generateRandomFractions(LARGE_DESIGN, LARGE_FRACTION_SIZE, 200, 42L);
+        assertResults(expected, parallel.generateRandomFractions(LARGE_DESIGN, LARGE_FRACTION_SIZE, 200, 42L),
+                "diseño grande");
+
+        int aboveInt = 0;
+        for (FractionResult result : expected) {
+            assertTrue(result.getStart() >= 1 && result.getStart() <= LARGE_TR, "inicio " + result.getStart());
+            if (result.getStart() > Integer.MAX_VALUE) {
+                aboveInt++;
+            }
+        }
+        assertEquals(200, expected.stream().mapToLong(FractionResult::getStart).distinct().count());
+        // Con inicios uniformes en [1, TR], casi todos pasan de Integer.MAX_VALUE
+        assertTrue(aboveInt > 150, "sólo " + aboveInt + " inicios mayores que Integer.MAX_VALUE");
+        for (int i = 0; i < expected.size(); i += 20) {
+            assertMatchesBaseline(expected.get(i));
+        }
+    }
+
+    /**
+     * Inicios alrededor de Integer.MAX_VALUE y 2³², y los últimos de TR, cuya ventana da la vuelta a la fila 1
+     */
+    @Test
+    void largeDesignCustomStartsBeyondInt() {
+        List<Long> starts = List.of(1L, (long) Integer.MAX_VALUE, Integer.MAX_VALUE + 1L, 1L << 32, (1L << 32) + 7,
+                LARGE_TR - LARGE_FRACTION_SIZE, LARGE_TR - 1, LARGE_TR);
+
+        List<FractionResult> expected = serial.generateCustomFractions(LARGE_DESIGN, LARGE_FRACTION_SIZE, starts);
+        assertResults(expected, parallel.generateCustomFractions(LARGE_DESIGN, LARGE_FRACTION_SIZE, starts),
+                "lista");
+        assertResults(expected, parallel.streamCustomFractions(LARGE_DESIGN, LARGE_FRACTION_SIZE, starts)
+                .collect(Collectors.toList()), "stream");
+        for (int i = 0; i < starts.size(); i++) {
+            assertEquals(starts.get(i), expected.get(i).getStart());
+            assertMatchesBaseline(expected.get(i));
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> serial.generateCustomFractions(
+                LARGE_DESIGN, LARGE_FRACTION_SIZE, List.of(LARGE_TR + 1)));
+        assertThrows(IllegalArgumentException.class, () -> serial.generateCustomFractions(
+                LARGE_DESIGN, LARGE_FRACTION_SIZE, List.of(0L)));
+    }
+
+    /**
+     * Un TR que no cabe en long se rechaza con IllegalArgumentException en lugar de desbordarse
+     */
+    @Test
+    void designOverflowingLongIsRejected() {
+        // 127·131·…·167 ≈ 3·10¹⁹ > Long.MAX_VALUE; sin los últimos factores sí cabe
+        int[] overflowing = {127, 131, 137, 139, 149, 151, 157, 163, 167};
+        assertFalse(serial.validateDesign(overflowing));
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> serial.calculateParameters(overflowing));
+        assertTrue(error.getMessage().contains(String.valueOf(Long.MAX_VALUE)), error.getMessage());
+        assertThrows(IllegalArgumentException.class,
+                () -> serial.generateRandomFractions(overflowing, 200, 10, 1L));
+
+        int[] fitting = {127, 131, 137, 139, 149, 151, 157};
+        assertTrue(serial.validateDesign(fitting));
+        assertEquals(127L * 131 * 137 * 139 * 149 * 151 * 157, serial.calculateParameters(fitting).tr());
+    }
+
+    /**
+     * Celdas de SF min a min(maxFractionSize, TR - 1) por diseño: {2,3,5} y {3,4,5} de 5 a 12, {2,3,5,7} de 7 a 12
+     */
+    @Test
+    void sweepCoversGridInOrder() {
+        List<int[]> designs = List.of(new int[]{2, 3, 5}, new int[]{3, 4, 5}, new int[]{2, 3, 5, 7});
+        int[][] expectedCells = new int[22][];
+        int cell = 0;
+        for (int d = 0; d < designs.size(); d++) {
+            for (int size = d == 2 ? 7 : 5; size <= 12; size++) {
+                expectedCells[cell++] = new int[]{d, size};
+            }
+        }
+
+        List<SweepSummary> delivered = new ArrayList<>();
+        List<SweepSummary> expected = serial.sweepDesigns(designs, 12, delivered::add);
+        assertEquals(expectedCells.length, expected.size());
+        assertEquals(expectedCells.length, delivered.size());
+        for (int i = 0; i < expectedCells.length; i++) {
+            SweepSummary summary = expected.get(i);
+            int[] design = designs.get(expectedCells[i][0]);
+            String message = "celda " + i;
+            assertArrayEquals(design, summary.design(), message);
+            assertEquals(expectedCells[i][1], summary.fractionSize(), message);
+            assertEquals(serial.calculateParameters(design).tr(), summary.tr(), message);
+            for (FractionMetric metric : FractionMetric.values()) {
+                FractionScore best = switch (metric) {
+                    case GBM -> summary.bestGbm();
+                    case J2 -> summary.bestJ2();
+                    case MAX_VIF -> summary.bestMaxVif();
+                };
+                FractionScore scanned = serial.scanTopScores(design, summary.fractionSize(), 1, metric,
+                        FractionThresholds.NONE).get(0);
+                assertEquals(scanned.start(), best.start(), message + ", " + metric);
+            }
+        }
+
+        // Con pool el consumidor recibe las mismas celdas en orden de terminación, y el resultado sigue la rejilla
+        List<SweepSummary> pooledDelivered = new ArrayList<>();
+        List<SweepSummary> pooled = parallel.sweepDesigns(designs, 12, pooledDelivered::add);
+        assertSummaries(expected, pooled);
+        pooledDelivered.sort(Comparator.comparingInt((SweepSummary summary) -> summary.design().length)
+                .thenComparingLong(SweepSummary::tr).thenComparingInt(SweepSummary::fractionSize));
+        assertSummaries(expected, pooledDelivered);
+
+        // Un diseño con TR - 1 menor que maxFractionSize se corta en TR - 1
+        assertEquals(29 - 5 + 1, serial.sweepDesigns(List.of(new int[]{2, 3, 5}), 100, summary -> { }).size());
+        assertThrows(IllegalArgumentException.class,
+                () -> serial.sweepDesigns(List.of(new int[]{2, 4}), 12, summary -> { }));
+    }
+
+    /**
+     * La entrega no sincroniza sobre el consumidor: quien llama puede tener su monitor sin bloquear a los hilos
+     */
+    @Test
+    void sweepDoesNotLockOnSink() throws InterruptedException {
+        List<int[]> designs = List.of(new int[]{2, 3, 5}, new int[]{3, 4, 5});
+        List<SweepSummary> delivered = new ArrayList<>();
+        Consumer<SweepSummary> sink = delivered::add;
+        // Pool y hilo propios: si se bloquea, la prueba falla sin dejar ocupado el pool de las demás
+        ForkJoinPool sweepPool = new ForkJoinPool(2);
+        NONBPAGeneratorService service = new NONBPAGeneratorService(sweepPool);
+        Thread caller = new Thread(() -> {
+            synchronized (sink) {
+                service.sweepDesigns(designs, 12, sink);
+            }
+        }, "sweep-caller");
+        caller.setDaemon(true);
+        try {
+            caller.start();
+            caller.join(30_000);
+            assertFalse(caller.isAlive(), "el barrido quedó bloqueado esperando el monitor del consumidor");
+        } finally {
+            sweepPool.shutdownNow();
+        }
+        assertEquals(16, delivered.size());
+    }
+
+    /**
+     * Compara con el cálculo original sobre la fracción materializada
+     */
+    private static void assertMatchesBaseline(FractionResult result) {
+        double[][] fraction = FractionView.of(LARGE_DESIGN, result.getStart(), LARGE_FRACTION_SIZE).toMatrix();
+        String message = "inicio " + result.getStart();
+        assertArrayEquals(fraction, result.getLevels().toMatrix(), message);
+        assertEquals(BaselineMetrics.gbm(fraction, LARGE_DESIGN), result.getGbm(), TOLERANCE, message);
+        assertEquals(BaselineMetrics.j2(fraction), result.getJ2(), TOLERANCE, message);
+        double[] vifs = BaselineMetrics.vifs(fraction);
+        assertNotNull(vifs, message);
+        assertArrayEquals(vifs, result.getVifs(), TOLERANCE * 100, message);
+    }
+
+    private static void assertSummaries(List<SweepSummary> expected, List<SweepSummary> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            String message = "celda " + i;
+            assertArrayEquals(expected.get(i).design(), actual.get(i).design(), message);
+            assertEquals(expected.get(i).fractionSize(), actual.get(i).fractionSize(), message);
+            assertEquals(expected.get(i).bestGbm().start(), actual.get(i).bestGbm().start(), message);
+            assertEquals(expected.get(i).bestJ2().start(), actual.get(i).bestJ2().start(), message);
+            assertEquals(expected.get(i).bestMaxVif().start(), actual.get(i).bestMaxVif().start(), message);
+            assertArrayEquals(expected.get(i).bestMaxVif().vifs(), actual.get(i).bestMaxVif().vifs(), message);
+        }
+    }
+
+    private static void assertResults(List<FractionResult> expected, List<FractionResult> actual, String path) {
+        assertEquals(expected.size(), actual.size(), path);
+        for (int i = 0; i < expected.size(); i++) {
+            FractionResult want = expected.get(i);
+            FractionResult got = actual.get(i);
+            String message = path + ", fracción " + (i + 1);
+            assertEquals(i + 1, want.getFractionNumber(), message);
+            assertEquals(i + 1, got.getFractionNumber(), message);
+            assertEquals(want.getStart(), got.getStart(), message);
+            assertEquals(want.getGbm(), got.getGbm(), message);
+            assertEquals(want.getJ2(), got.getJ2(), message);
+            assertArrayEquals(want.getVifs(), got.getVifs(), message);
+            assertArrayEquals(want.getLevels().cells(), got.getLevels().cells(), message);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package me.julionxn.nobaitc.data.nonbpa;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class OrthogonalJ2MatrixTest {
+
+    private final OrthogonalJ2Matrix calculator = new OrthogonalJ2Matrix();
+
+    @Test
+    void contingencyJ2MatchesPairwiseMatchCount() {
+        int[][] designs = {{2, 3}, {2, 3, 5}, {3, 4, 5}, {2, 3, 5, 7}, {2, 5, 7, 9}};
+        for (int[] design : designs) {
+            long tr = tr(design);
+            for (int fractionSize : new int[]{design.length + 1, 12, 31}) {
+                for (long start = 1; start <= tr; start += Math.max(1, tr / 40)) {
+                    FractionView view = FractionView.of(design, start, fractionSize);
+                    assertBreakdownMatches(LevelMatrix.of(view), view.toMatrix(), "inicio " + start);
+                    assertEquals(BaselineMetrics.j2(view.toMatrix()), calculator.calculateJ2(view));
+                }
+            }
+        }
+    }
+
+    /**
+     * Filas sueltas en cualquier orden, como las del recocido, no sólo ventanas contiguas
+     */
+    @Test
+    void contingencyJ2MatchesPairwiseMatchCountOnArbitraryRows() {
+        int[] design = {2, 3, 5, 7, 11};
+        long tr = tr(design);
+        Random random = new Random(11);
+        for (int trial = 0; trial < 200; trial++) {
+            long[] rows = new long[1 + random.nextInt(60)];
+            for (int i = 0; i < rows.length; i++) {
+                rows[i] = 1 + (long) (random.nextDouble() * tr);
+            }
+            LevelMatrix fraction = LevelMatrix.ofRows(design, rows);
+            assertBreakdownMatches(fraction, fraction.toMatrix(), "prueba " + trial);
+        }
+    }
+
+    private void assertBreakdownMatches(LevelMatrix fraction, double[][] matrix, String message) {
+        double expected = BaselineMetrics.j2(matrix);
+        OrthogonalJ2Matrix.J2Breakdown breakdown = calculator.calculateJ2Breakdown(fraction);
+
+        assertEquals(expected, breakdown.j2(), message);
+        assertEquals(expected, calculator.calculateJ2(fraction), message);
+        assertEquals(expected, calculator.calculateJ2(matrix), message);
+
+        long contributions = 0;
+        for (int k = 0; k < fraction.factors(); k++) {
+            for (int l = k; l < fraction.factors(); l++) {
+                contributions += breakdown.contribution(k, l);
+            }
+        }
+        assertEquals(breakdown.j2(), contributions, message);
+    }
+
+    private static long tr(int[] design) {
+        long tr = 1;
+        for (int levels : design) {
+            tr *= levels;
+        }
+        return tr;
+    }
+}
@@ -0,0 +1,147 @@
+package me.julionxn.nobaitc.data.nonbpa;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParetoArchiveTest {
+
+    private final Random random = new Random(18);
+
+    /**
+     * Métricas sobre rejillas pequeñas para forzar empates, y VIFs NaN como los de las fracciones singulares
+     */
+    @Test
+    void frontMatchesAllPairsFilter() {
+        for (int set = 0; set < 200; set++) {
+            List<FractionScore> scores = randomScores(1 + random.nextInt(80));
+            List<Long> expected = allPairsFront(scores);
+            String message = "conjunto " + set + " de " + scores.size();
+
+            ParetoArchive archive = new ParetoArchive();
+            for (FractionScore score : scores) {
+                archive.offer(score);
+            }
+            assertEquals(expected, starts(archive), message);
+            assertEquals(expected.size(), archive.size(), message);
+
+            // El orden de llegada no cambia el frente, ni repartirlo entre dos archivos
+            List<FractionScore> shuffled = new ArrayList<>(scores);
+            Collections.shuffle(shuffled, random);
+            ParetoArchive left = new ParetoArchive();
+            ParetoArchive right = new ParetoArchive();
+            for (int i = 0; i < shuffled.size(); i++) {
+                (i % 2 == 0 ? left : right).offer(shuffled.get(i));
+            }
+            assertEquals(expected, starts(left.merge(right)), message);
+        }
+    }
+
+    @Test
+    void equalMetricsKeepLowestStart() {
+        ParetoArchive archive = new ParetoArchive();
+        assertTrue(archive.offer(score(9, 1, 2, 3)));
+        assertTrue(archive.offer(score(4, 1, 2, 3)));
+        assertFalse(archive.offer(score(6, 1, 2, 3)));
+        assertFalse(archive.offer(score(4, 1, 2, 3)));
+        assertEquals(List.of(4L), starts(archive));
+    }
+
+    @Test
+    void nanVifIsWorstValue() {
+        FractionScore singular = score(1, 0, 0, Double.NaN);
+        FractionScore regular = score(2, 0, 0, 5);
+        assertTrue(ParetoArchive.dominates(regular, singular));
+        assertFalse(ParetoArchive.dominates(singular, regular));
+
+        ParetoArchive archive = new ParetoArchive();
+        assertTrue(archive.offer(singular));
+        assertTrue(archive.offer(regular));
+        assertEquals(List.of(2L), starts(archive));
+
+        // Una fracción singular mejor en otra métrica sí entra al frente
+        assertTrue(archive.offer(score(3, 0, -1, Double.NaN)));
+        assertEquals(List.of(3L, 2L), starts(archive));
+    }
+
+    /**
+     * Referencia O(n²): se conserva una fracción si ninguna otra la domina y, entre las de métricas
+     * idénticas, sólo la de menor inicio; el resultado se ordena como el archivo
+     */
+    private static List<Long> allPairsFront(List<FractionScore> scores) {
+        List<FractionScore> front = new ArrayList<>();
+        for (FractionScore candidate : scores) {
+            boolean kept = true;
+            for (FractionScore other : scores) {
+                if (other == candidate) {
+                    continue;
+                }
+                int gbm = Double.compare(other.gbm(), candidate.gbm());
+                int j2 = Double.compare(other.j2(), candidate.j2());
+                int vif = Double.compare(maxVif(other), maxVif(candidate));
+                boolean noWorse = gbm <= 0 && j2 <= 0 && vif <= 0;
+                boolean better = gbm < 0 || j2 < 0 || vif < 0;
+                boolean tieWithLowerStart = !better && other.start() < candidate.start();
+                if (noWorse && (better || tieWithLowerStart)) {
+                    kept = false;
+                    break;
+                }
+            }
+            if (kept) {
+                front.add(candidate);
+            }
+        }
+        front.sort((a, b) -> {
+            int cmp = Double.compare(a.gbm(), b.gbm());
+            if (cmp == 0) cmp = Double.compare(a.j2(), b.j2());
+            if (cmp == 0) cmp = Double.compare(maxVif(a), maxVif(b));
+            return cmp != 0 ? cmp : Long.compare(a.start(), b.start());
+        });
+        List<Long> starts = new ArrayList<>();
+        for (FractionScore score : front) {
+            starts.add(score.start());
+        }
+        return starts;
+    }
+
+    private static double maxVif(FractionScore score) {
+        double max = score.maxVif();
+        return Double.isNaN(max) ? Double.POSITIVE_INFINITY : max;
+    }
+
+    private List<FractionScore> randomScores(int count) {
+        List<FractionScore> scores = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            double[] vifs = new double[3];
+            for (int k = 0; k < vifs.length; k++) {
+                vifs[k] = 1 + random.nextInt(6) * 0.5;
+            }
+            if (random.nextInt(10) == 0) {
+                vifs[random.nextInt(vifs.length)] = Double.NaN;
+            }
+            // Inicios distintos y desordenados, para que el desempate no siga el orden de llegada
+            scores.add(new FractionScore(1 + (long) (count - i) * 7 % 1009, random.nextInt(5), random.nextInt(5),
+                    vifs));
+        }
+        return scores;
+    }
+
+    private static FractionScore score(long start, double gbm, double j2, double maxVif) {
+        return new FractionScore(start, gbm, j2, new double[]{1, maxVif});
+    }
+
+    private static List<Long> starts(ParetoArchive archive) {
+        List<Long> starts = new ArrayList<>();
+        for (FractionScore score : archive.toSortedList()) {
+            starts.add(score.start());
+        }
+        return starts;
+    }
+}
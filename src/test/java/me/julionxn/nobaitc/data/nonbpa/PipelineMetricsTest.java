@@ -0,0 +1,118 @@
+package me.julionxn.nobaitc.data.nonbpa;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PipelineMetricsTest {
+
+    private static final int[] DESIGN = {3, 4, 5, 7};
+    private static final int FRACTION_SIZE = 16;
+    private static final long TR = 420;
+
+    @Test
+    void disabledMeasuresNothing() {
+        assertFalse(PipelineMetrics.DISABLED.isEnabled());
+        PipelineMetrics.StageClock clock = PipelineMetrics.DISABLED.begin(DESIGN, FRACTION_SIZE);
+        assertSame(clock, PipelineMetrics.DISABLED.begin(DESIGN, FRACTION_SIZE));
+        try (clock) {
+            clock.mark();
+            clock.lap(PipelineMetrics.Stage.VIF);
+            clock.fraction();
+        }
+        assertEmpty(PipelineMetrics.DISABLED.snapshot());
+    }
+
+    /**
+     * Cada camino cuenta una vez cada fracción evaluada, con cualquier número de hilos
+     */
+    @Test
+    void countsEveryEvaluatedFraction() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (ForkJoinPool servicePool : new ForkJoinPool[]{null, pool}) {
+                PipelineMetrics metrics = PipelineMetrics.create();
+                NONBPAGeneratorService service = new NONBPAGeneratorService(servicePool,
+                        new DesignCache(NONBPAGeneratorService.DEFAULT_CACHE_BYTES), metrics);
+                assertSame(metrics, service.getMetrics());
+
+                service.generateRandomFractions(DESIGN, FRACTION_SIZE, 300, 1L);
+                assertStages(metrics.snapshot(), 300);
+
+                List<FractionScore> scores = new ArrayList<>();
+                service.scoreRandomFractions(DESIGN, FRACTION_SIZE, 100, 1L, scores::add);
+                assertStages(metrics.snapshot(), 400);
+
+                assertEquals(50, service.streamRandomFractions(DESIGN, FRACTION_SIZE, 50, 1L)
+                        .collect(Collectors.toList()).size());
+                assertStages(metrics.snapshot(), 450);
+
+                metrics.reset();
+                assertEmpty(metrics.snapshot());
+
+                service.scanTopFractions(DESIGN, FRACTION_SIZE, 5, FractionMetric.MAX_VIF);
+                assertStages(metrics.snapshot(), TR);
+                service.scanParetoFront(DESIGN, FRACTION_SIZE);
+                assertStages(metrics.snapshot(), 2 * TR);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Un rango que falla a la mitad igual publica las fracciones que alcanzó a evaluar
+     */
+    @Test
+    void failingRangeStillPublishes() {
+        PipelineMetrics metrics = PipelineMetrics.create();
+        NONBPAGeneratorService service = new NONBPAGeneratorService(null,
+                new DesignCache(NONBPAGeneratorService.DEFAULT_CACHE_BYTES), metrics);
+        // En {3, 4, 5} con tamaño 5, los inicios 1 a 10 son invertibles y el 11 es singular
+        List<Long> starts = List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L, 11L);
+        assertThrows(RuntimeException.class, () -> service.generateCustomFractions(new int[]{3, 4, 5}, 5, starts));
+        assertEquals(10, metrics.snapshot().fractions());
+
+        PipelineMetrics direct = PipelineMetrics.create();
+        assertThrows(IllegalStateException.class, () -> {
+            try (PipelineMetrics.StageClock clock = direct.begin(DESIGN, FRACTION_SIZE)) {
+                clock.fraction();
+                clock.fraction();
+                throw new IllegalStateException("falla dentro del rango");
+            }
+        });
+        assertEquals(2, direct.snapshot().fractions());
+    }
+
+    private static void assertStages(PipelineMetrics.Snapshot snapshot, long fractions) {
+        assertEquals(fractions, snapshot.fractions());
+        assertTrue(snapshot.wallNanos() > 0);
+        assertTrue(snapshot.fractionsPerSecond() > 0);
+        assertEquals(PipelineMetrics.Stage.values().length, snapshot.stageNanos().size());
+        long total = 0;
+        for (long nanos : snapshot.stageNanos().values()) {
+            assertTrue(nanos >= 0);
+            total += nanos;
+        }
+        assertTrue(total > 0);
+        assertTrue(snapshot.stageNanos().get(PipelineMetrics.Stage.VIF) > 0);
+    }
+
+    private static void assertEmpty(PipelineMetrics.Snapshot snapshot) {
+        assertEquals(0, snapshot.fractions());
+        assertEquals(0, snapshot.wallNanos());
+        assertEquals(0, snapshot.allocatedBytes());
+        for (long nanos : snapshot.stageNanos().values()) {
+            assertEquals(0, nanos);
+        }
+    }
+}
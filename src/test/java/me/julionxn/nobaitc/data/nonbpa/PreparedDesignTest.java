@@ -0,0 +1,94 @@
+package me.julionxn.nobaitc.data.nonbpa;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PreparedDesignTest {
+
+    private static final double TOLERANCE = 1e-9;
+
+    /**
+     * Las tablas suponen que el GBM de cada factor sólo depende de (inicio - 1) mod niveles
+     * y que J2 es igual para todos los inicios; aquí se comprueba contra el cálculo por fracción
+     */
+    @Test
+    void tablesMatchPerFractionMetricsForEveryStart() {
+        NONBPAGeneratorService service = new NONBPAGeneratorService();
+        BalancedGBMMatrix gbmCalculator = new BalancedGBMMatrix();
+        OrthogonalJ2Matrix j2Calculator = new OrthogonalJ2Matrix();
+        int[][] designs = {{2, 3, 5}, {3, 4, 5}, {2, 5, 9}, {2, 3, 5, 7}};
+
+        for (int[] design : designs) {
+            NONBPAGeneratorService.DesignParameters parameters = service.calculateParameters(design);
+            long tr = parameters.tr();
+            int[] sizes = {parameters.sfMin(), parameters.sfMin() + 7, (int) tr / 2 + 1, (int) tr - 1};
+            for (int fractionSize : sizes) {
+                PreparedDesign prepared = new PreparedDesign(design, fractionSize, parameters);
+                for (long start = 1; start <= tr; start++) {
+                    double[][] fraction = FractionView.of(design, start, fractionSize).toMatrix();
+                    String window = "diseño " + tr + ", inicio " + start + ", tamaño " + fractionSize;
+
+                    assertEquals(gbmCalculator.calculateGBM(fraction, design), prepared.gbm(start), TOLERANCE, window);
+                    assertEquals(BaselineMetrics.gbm(fraction, design), prepared.gbm(start), TOLERANCE, window);
+                    assertEquals(j2Calculator.calculateJ2(fraction), prepared.j2(), window);
+                    assertEquals(BaselineMetrics.j2(fraction), prepared.j2(), window);
+                }
+            }
+        }
+    }
+
+    /**
+     * El GBM de una ventana contigua es el mismo para cualquier inicio; los caminos por tabla, deslizante
+     * y sobre niveles enteros deben dar exactamente el mismo double, o el orden por GBM dependería del redondeo
+     */
+    @Test
+    void gbmIsBitIdenticalAcrossStartsAndPaths() {
+        NONBPAGeneratorService service = new NONBPAGeneratorService();
+        BalancedGBMMatrix gbmCalculator = new BalancedGBMMatrix();
+        int[][] designs = {{2, 3, 5, 7}, {3, 4, 5, 7}, {5, 7, 11}, {4, 5, 7, 9}};
+
+        for (int[] design : designs) {
+            NONBPAGeneratorService.DesignParameters parameters = service.calculateParameters(design);
+            long tr = parameters.tr();
+            for (int fractionSize : new int[]{parameters.sfMin(), 40, (int) tr / 3}) {
+                PreparedDesign prepared = new PreparedDesign(design, fractionSize, parameters);
+                SlidingFractionEvaluator evaluator = new SlidingFractionEvaluator(design, fractionSize, tr);
+                evaluator.moveTo(1);
+                double expected = prepared.gbm(1);
+                for (long start = 1; start <= tr; start++) {
+                    String window = "inicio " + start + ", tamaño " + fractionSize;
+                    FractionView view = FractionView.of(design, start, fractionSize);
+                    assertEquals(expected, prepared.gbm(start), window);
+                    assertEquals(expected, evaluator.gbm(), window);
+                    assertEquals(expected, gbmCalculator.calculateGBM(view), window);
+                    assertEquals(expected, gbmCalculator.calculateGBM(LevelMatrix.of(view), design), window);
+                    evaluator.advance();
+                }
+            }
+        }
+    }
+
+    @Test
+    void gbmIsBitIdenticalOnLargeDesign() {
+        int[] design = {5, 7, 11, 13, 17, 19, 23, 29, 31};
+        int fractionSize = 40;
+        NONBPAGeneratorService service = new NONBPAGeneratorService();
+        NONBPAGeneratorService.DesignParameters parameters = service.calculateParameters(design);
+        PreparedDesign prepared = new PreparedDesign(design, fractionSize, parameters);
+        SlidingFractionEvaluator evaluator = new SlidingFractionEvaluator(design, fractionSize, parameters.tr());
+        double expected = prepared.gbm(1);
+
+        Random random = new Random(6);
+        for (int i = 0; i < 200; i++) {
+            long start = 1 + (long) (random.nextDouble() * parameters.tr());
+            evaluator.moveTo(start);
+            assertEquals(expected, prepared.gbm(start));
+            assertEquals(expected, evaluator.gbm());
+            assertEquals(expected, new BalancedGBMMatrix().calculateGBM(
+                    LevelMatrix.of(FractionView.of(design, start, fractionSize)), design));
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package me.julionxn.nobaitc.data.nonbpa;
+
+import me.julionxn.nobaitc.data.SeededSampler;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RowSubsetAnnealerTest {
+
+    private static final double TOLERANCE = 1e-9;
+
+    private static final int[] DESIGN = {3, 4, 5, 7};
+    private static final int FRACTION_SIZE = 12;
+    private static final long TR = 420;
+
+    /**
+     * Con límite de iteraciones, cada reinicio depende sólo de la semilla y de su índice
+     */
+    @Test
+    void sameSeedGivesSameRowsOnSerialAndParallel() {
+        AnnealingSettings settings = new AnnealingSettings(1, 1, 1, 6, 3000, Long.MAX_VALUE, 42);
+        List<OptimizedFraction> expected = new NONBPAGeneratorService().optimizeFractions(DESIGN, FRACTION_SIZE,
+                settings);
+        assertFalse(expected.isEmpty());
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            NONBPAGeneratorService parallel = new NONBPAGeneratorService(pool);
+            for (int run = 0; run < 2; run++) {
+                List<OptimizedFraction> actual = parallel.optimizeFractions(DESIGN, FRACTION_SIZE, settings);
+                assertEquals(expected.size(), actual.size());
+                for (int i = 0; i < expected.size(); i++) {
+                    assertArrayEquals(expected.get(i).rows(), actual.get(i).rows(), "reinicio " + i);
+                    assertEquals(expected.get(i).objective(), actual.get(i).objective(), "reinicio " + i);
+                    assertArrayEquals(expected.get(i).vifs(), actual.get(i).vifs(), "reinicio " + i);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * El recocido conserva la mejor fracción visitada: nunca termina peor que la ventana contigua de la que parte
+     */
+    @Test
+    void objectiveNeverWorseThanStartingWindow() {
+        AnnealingSettings[] settingsList = {
+                new AnnealingSettings(1, 1, 1, 1, 2000, Long.MAX_VALUE, 7),
+                new AnnealingSettings(0, 0, 1, 1, 2000, Long.MAX_VALUE, 7),
+                // Sin peso de VIF no se invierte la matriz en cada paso
+                new AnnealingSettings(1, 0.1, 0, 1, 2000, Long.MAX_VALUE, 7),
+        };
+        for (AnnealingSettings settings : settingsList) {
+            RowSubsetAnnealer annealer = new RowSubsetAnnealer(DESIGN, FRACTION_SIZE, TR, settings);
+            SeededSampler root = new SeededSampler(settings.seed());
+            for (int restart = 0; restart < 8; restart++) {
+                // El reinicio parte de la ventana con primera fila (residuo) first, es decir del inicio first + 1
+                long first = root.substream(restart).nextLong(TR);
+                double startObjective = baselineObjective(settings,
+                        FractionView.of(DESIGN, first + 1, FRACTION_SIZE).toMatrix());
+
+                OptimizedFraction result = annealer.run(root.substream(restart));
+                String message = settings + ", reinicio " + restart;
+                assertTrue(result.objective() <= startObjective + TOLERANCE * Math.max(1, startObjective),
+                        message + ": " + result.objective() + " > " + startObjective);
+                assertEquals(settings.maxIterations(), result.iterations(), message);
+                assertValidRows(result.rows(), message);
+
+                // El objetivo reportado corresponde a las filas devueltas
+                double[][] fraction = result.fraction().toMatrix();
+                assertArrayEquals(LevelMatrix.ofRows(DESIGN, result.rows()).toMatrix(), fraction, message);
+                assertEquals(baselineObjective(settings, fraction), result.objective(),
+                        TOLERANCE * Math.max(1, result.objective()), message);
+            }
+        }
+    }
+
+    private static double baselineObjective(AnnealingSettings settings, double[][] fraction) {
+        double[] vifs = BaselineMetrics.vifs(fraction);
+        double maxVif = vifs == null ? Double.NaN : FractionScore.maxVif(vifs);
+        return settings.objective(BaselineMetrics.gbm(fraction, DESIGN), BaselineMetrics.j2(fraction), maxVif);
+    }
+
+    private static void assertValidRows(long[] rows, String message) {
+        assertEquals(FRACTION_SIZE, rows.length, message);
+        for (int i = 0; i < rows.length; i++) {
+            assertTrue(rows[i] >= 1 && rows[i] <= TR, message + ": fila " + rows[i]);
+            if (i > 0) {
+                assertTrue(rows[i] > rows[i - 1], message + ": filas repetidas o desordenadas");
+            }
+        }
+    }
+}
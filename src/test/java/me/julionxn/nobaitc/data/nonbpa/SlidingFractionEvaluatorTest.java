@@ -0,0 +1,86 @@
+package me.julionxn.nobaitc.data.nonbpa;
+
+import me.julionxn.nobaitc.data.BaselineMatlab;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlidingFractionEvaluatorTest {
+
+    private static final double TOLERANCE = 1e-9;
+
+    /**
+     * Recorre todos los inicios y sigue después de TR, así que pasa por las ventanas que dan la vuelta
+     * al final de la matriz reflejo y por el regreso del inicio TR al 1
+     */
+    @Test
+    void slidingMatchesFromScratchAcrossWraparound() {
+        int[][] designs = {{2, 3, 5}, {3, 4, 5}, {2, 3, 5, 7}, {4, 5, 7}};
+        for (int[] design : designs) {
+            long tr = tr(design);
+            for (int fractionSize : new int[]{design.length + 2, 13, (int) tr / 2, (int) tr - 1}) {
+                SlidingFractionEvaluator evaluator = new SlidingFractionEvaluator(design, fractionSize, tr);
+                evaluator.moveTo(1);
+                long expectedStart = 1;
+                for (long step = 0; step < tr + fractionSize + 3; step++) {
+                    assertEquals(expectedStart, evaluator.getStart());
+                    assertMatchesScratch(design, fractionSize, evaluator);
+                    evaluator.advance();
+                    expectedStart = expectedStart == tr ? 1 : expectedStart + 1;
+                }
+            }
+        }
+    }
+
+    @Test
+    void moveToNextStartSlidesAndOtherStartsRebuild() {
+        int[] design = {3, 4, 5};
+        int fractionSize = 17;
+        long tr = tr(design);
+        SlidingFractionEvaluator evaluator = new SlidingFractionEvaluator(design, fractionSize, tr);
+        long[] starts = {tr - 2, tr - 1, tr, 1, 2, 40, 7, tr};
+        for (long start : starts) {
+            evaluator.moveTo(start);
+            assertEquals(start, evaluator.getStart());
+            assertMatchesScratch(design, fractionSize, evaluator);
+        }
+    }
+
+    private static void assertMatchesScratch(int[] design, int fractionSize, SlidingFractionEvaluator evaluator) {
+        long start = evaluator.getStart();
+        double[][] fraction = FractionView.of(design, start, fractionSize).toMatrix();
+        String window = "inicio " + start + ", tamaño " + fractionSize;
+
+        assertEquals(BaselineMetrics.gbm(fraction, design), evaluator.gbm(), TOLERANCE, window);
+        assertEquals(BaselineMetrics.j2(fraction), evaluator.j2(), window);
+
+        double[][] expectedCorrelation = BaselineMatlab.corrcoef(fraction);
+        double[][] correlation = evaluator.correlation();
+        for (int i = 0; i < design.length; i++) {
+            assertArrayEquals(expectedCorrelation[i], correlation[i], TOLERANCE, window);
+        }
+
+        double[] expectedVifs = BaselineMetrics.vifs(fraction);
+        double[] vifs = evaluator.vifs();
+        if (expectedVifs == null) {
+            // Ventana singular: el recorrido la deja al final con VIFs NaN
+            for (double vif : vifs) {
+                assertTrue(Double.isNaN(vif), window);
+            }
+            return;
+        }
+        for (int k = 0; k < design.length; k++) {
+            assertEquals(expectedVifs[k], vifs[k], TOLERANCE * Math.max(1, expectedVifs[k]), window);
+        }
+    }
+
+    private static long tr(int[] design) {
+        long tr = 1;
+        for (int levels : design) {
+            tr *= levels;
+        }
+        return tr;
+    }
+}
@@ -0,0 +1,179 @@
+package me.julionxn.nobaitc.data.nonbpa;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * La búsqueda por etapas debe conservar exactamente las mismas K fracciones que evaluar todo y ordenar
+ */
+class StagedFractionFilterTest {
+
+    private static final int[][] DESIGNS = {{2, 3, 5, 7}, {3, 4, 5, 7}};
+    private static final int TOP_K = 7;
+
+    private static ForkJoinPool pool;
+    private static NONBPAGeneratorService serial;
+    private static NONBPAGeneratorService parallel;
+
+    @BeforeAll
+    static void createServices() {
+        pool = new ForkJoinPool(4);
+        serial = new NONBPAGeneratorService();
+        parallel = new NONBPAGeneratorService(pool);
+    }
+
+    @AfterAll
+    static void shutdownPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    void topFractionsMatchBruteForce() {
+        for (int[] design : DESIGNS) {
+            long tr = serial.calculateParameters(design).tr();
+            for (int fractionSize : new int[]{serial.calculateParameters(design).sfMin(), 16, (int) tr / 3}) {
+                List<FractionScore> all = allScores(design, fractionSize, tr);
+                for (FractionThresholds thresholds : thresholdsFor(all)) {
+                    for (FractionMetric metric : FractionMetric.values()) {
+                        String message = "diseño " + design.length + "x" + tr + ", tamaño " + fractionSize
+                                + ", " + metric + ", " + thresholds;
+                        List<FractionScore> expected = bruteForce(all, metric, thresholds);
+
+                        StagedScan scan = serial.scanTopFractions(design, fractionSize, TOP_K, metric, thresholds);
+                        assertResults(expected, scan.fractions(), message);
+                        assertEquals(tr, scan.pruning().evaluated(), message);
+                        assertScores(expected, serial.scanTopScores(design, fractionSize, TOP_K, metric,
+                                thresholds), message + ", serial");
+                        assertScores(expected, parallel.scanTopScores(design, fractionSize, TOP_K, metric,
+                                thresholds), message + ", paralelo");
+                        assertEquals(tr, parallel.scanTopFractions(design, fractionSize, TOP_K, metric, thresholds)
+                                .pruning().evaluated(), message);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * GBM y J2 son iguales para todo inicio: sin umbrales, la etapa de la métrica de orden sólo poda
+     * por desempate de inicio, una vez llenas las K posiciones
+     */
+    @Test
+    void pruneCountsWithoutThresholds() {
+        int[] design = {3, 4, 5, 7};
+        long tr = 420;
+
+        PruneStats byGbm = serial.scanTopFractions(design, 16, TOP_K, FractionMetric.GBM,
+                FractionThresholds.NONE).pruning();
+        assertEquals(new PruneStats(tr, tr - TOP_K, 0, 0), byGbm);
+        assertEquals(TOP_K, byGbm.vifComputations());
+
+        PruneStats byJ2 = serial.scanTopFractions(design, 16, TOP_K, FractionMetric.J2,
+                FractionThresholds.NONE).pruning();
+        assertEquals(new PruneStats(tr, 0, tr - TOP_K, 0), byJ2);
+
+        PruneStats byVif = serial.scanTopFractions(design, 16, TOP_K, FractionMetric.MAX_VIF,
+                FractionThresholds.NONE).pruning();
+        assertEquals(new PruneStats(tr, 0, 0, 0), byVif);
+        assertEquals(tr, byVif.vifComputations());
+    }
+
+    @Test
+    void pruneCountsWithThresholds() {
+        int[] design = {3, 4, 5, 7};
+        int fractionSize = 16;
+        long tr = 420;
+        List<FractionScore> all = allScores(design, fractionSize, tr);
+        double gbm = all.get(0).gbm();
+        double j2 = all.get(0).j2();
+
+        // Un umbral por debajo del valor común descarta todo en esa etapa
+        StagedScan noGbm = serial.scanTopFractions(design, fractionSize, TOP_K, FractionMetric.MAX_VIF,
+                new FractionThresholds(Math.nextDown(gbm), Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY));
+        assertEquals(new PruneStats(tr, tr, 0, 0), noGbm.pruning());
+        assertTrue(noGbm.fractions().isEmpty());
+
+        StagedScan noJ2 = serial.scanTopFractions(design, fractionSize, TOP_K, FractionMetric.GBM,
+                new FractionThresholds(gbm, Math.nextDown(j2), Double.POSITIVE_INFINITY));
+        assertEquals(new PruneStats(tr, 0, tr, 0), noJ2.pruning());
+        assertTrue(noJ2.fractions().isEmpty());
+
+        // Con la métrica de orden en los VIFs, el umbral de VIF descarta justo las que lo exceden o son singulares
+        double maxVif = medianMaxVif(all);
+        FractionThresholds vifOnly = new FractionThresholds(Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, maxVif);
+        long rejected = all.stream().filter(score -> !vifOnly.acceptsVif(score.maxVif())).count();
+        assertTrue(rejected > 0 && rejected < tr);
+        assertEquals(new PruneStats(tr, 0, 0, rejected), serial.scanTopFractions(design, fractionSize, TOP_K,
+                FractionMetric.MAX_VIF, vifOnly).pruning());
+    }
+
+    /**
+     * Cada inicio evaluado desde cero con su propia ventana, sin deslizar ni podar
+     */
+    private static List<FractionScore> allScores(int[] design, int fractionSize, long tr) {
+        List<FractionScore> all = new ArrayList<>((int) tr);
+        for (long start = 1; start <= tr; start++) {
+            SlidingFractionEvaluator evaluator = new SlidingFractionEvaluator(design, fractionSize, tr);
+            evaluator.moveTo(start);
+            all.add(evaluator.score());
+        }
+        return all;
+    }
+
+    private static List<FractionScore> bruteForce(List<FractionScore> all, FractionMetric metric,
+                                                  FractionThresholds thresholds) {
+        return all.stream()
+                .filter(score -> thresholds.acceptsGbm(score.gbm()) && thresholds.acceptsJ2(score.j2())
+                        && thresholds.acceptsVif(score.maxVif()))
+                .sorted(metric.comparator())
+                .limit(TOP_K)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Sin umbrales, un umbral de VIF que deja pasar la mitad, y uno que además rechaza todo por GBM
+     */
+    private static List<FractionThresholds> thresholdsFor(List<FractionScore> all) {
+        double gbm = all.get(0).gbm();
+        double maxVif = medianMaxVif(all);
+        return List.of(
+                FractionThresholds.NONE,
+                new FractionThresholds(gbm, Double.POSITIVE_INFINITY, maxVif),
+                new FractionThresholds(Math.nextDown(gbm), Double.POSITIVE_INFINITY, maxVif));
+    }
+
+    private static double medianMaxVif(List<FractionScore> all) {
+        double[] finite = all.stream().mapToDouble(FractionScore::maxVif).filter(v -> !Double.isNaN(v))
+                .sorted().toArray();
+        return Math.max(1, finite[finite.length / 2]);
+    }
+
+    private static void assertResults(List<FractionScore> expected, List<FractionResult> actual, String message) {
+        assertEquals(expected.size(), actual.size(), message);
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(i + 1, actual.get(i).getFractionNumber(), message);
+            assertEquals(expected.get(i).start(), actual.get(i).getStart(), message);
+            assertArrayEquals(expected.get(i).vifs(), actual.get(i).getVifs(), message);
+        }
+    }
+
+    private static void assertScores(List<FractionScore> expected, List<FractionScore> actual, String message) {
+        assertEquals(expected.size(), actual.size(), message);
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).start(), actual.get(i).start(), message);
+            assertEquals(expected.get(i).gbm(), actual.get(i).gbm(), message);
+            assertEquals(expected.get(i).j2(), actual.get(i).j2(), message);
+            assertArrayEquals(expected.get(i).vifs(), actual.get(i).vifs(), message);
+        }
+    }
+}
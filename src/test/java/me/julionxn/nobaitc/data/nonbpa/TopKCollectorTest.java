@@ -0,0 +1,152 @@
+package me.julionxn.nobaitc.data.nonbpa;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TopKCollectorTest {
+
+    private final Random random = new Random(2);
+
+    /**
+     * El heap nunca pasa de K y termina con las K mejores de todas las ofrecidas, en cualquier orden de llegada
+     */
+    @Test
+    void keepsBestKWithBoundedHeap() {
+        for (FractionMetric metric : FractionMetric.values()) {
+            for (int capacity : new int[]{1, 3, 10, 1000}) {
+                List<FractionScore> scores = randomScores(500);
+                TopKCollector collector = new TopKCollector(capacity, metric);
+                for (FractionScore score : scores) {
+                    collector.offer(score);
+                    assertTrue(collector.size() <= capacity);
+                }
+                List<FractionScore> expected = scores.stream().sorted(metric.comparator()).limit(capacity)
+                        .collect(Collectors.toList());
+                assertEquals(starts(expected), starts(collector.toSortedList()), metric + ", K = " + capacity);
+            }
+        }
+    }
+
+    @Test
+    void evictsWorstWhenFull() {
+        TopKCollector collector = new TopKCollector(2, FractionMetric.GBM);
+        assertTrue(collector.offer(score(1, 5)));
+        assertTrue(collector.offer(score(2, 3)));
+        assertFalse(collector.offer(score(3, 6)));
+        assertTrue(collector.offer(score(4, 4)));
+        assertEquals(List.of(2L, 4L), starts(collector.toSortedList()));
+        assertEquals(2, collector.size());
+    }
+
+    /**
+     * Con métricas iguales gana el menor inicio, sin importar el orden en que llegan
+     */
+    @Test
+    void tiesBreakByStart() {
+        TopKCollector collector = new TopKCollector(3, FractionMetric.J2);
+        for (long start : new long[]{40, 7, 25, 3, 90, 12}) {
+            collector.offer(new FractionScore(start, 0, 10, new double[]{1, 1}));
+        }
+        assertEquals(List.of(3L, 7L, 12L), starts(collector.toSortedList()));
+
+        assertFalse(collector.offer(new FractionScore(12, 0, 10, new double[]{1, 1})));
+        assertTrue(collector.offer(new FractionScore(1, 0, 10, new double[]{1, 1})));
+        assertEquals(List.of(1L, 3L, 7L), starts(collector.toSortedList()));
+    }
+
+    /**
+     * admits responde lo mismo que offer sin modificar el colector
+     */
+    @Test
+    void admitsMatchesOffer() {
+        for (FractionMetric metric : FractionMetric.values()) {
+            TopKCollector collector = new TopKCollector(5, metric);
+            for (FractionScore score : randomScores(400)) {
+                boolean admitted = collector.admits(metric.of(score), score.start());
+                int size = collector.size();
+                assertEquals(admitted, collector.offer(score), metric + ", inicio " + score.start());
+                assertTrue(collector.size() >= size);
+            }
+        }
+
+        TopKCollector collector = new TopKCollector(1, FractionMetric.GBM);
+        assertTrue(collector.admits(100, 50));
+        collector.offer(score(50, 2));
+        assertTrue(collector.admits(1, 99));
+        assertTrue(collector.admits(2, 49));
+        assertFalse(collector.admits(2, 50));
+        assertFalse(collector.admits(2, 51));
+        assertFalse(collector.admits(3, 1));
+        assertEquals(1, collector.size());
+    }
+
+    /**
+     * Un Max VIF NaN ordena al final: sólo entra si no hay fracciones suficientes
+     */
+    @Test
+    void nanMaxVifSortsLast() {
+        TopKCollector collector = new TopKCollector(2, FractionMetric.MAX_VIF);
+        collector.offer(new FractionScore(1, 0, 0, new double[]{1, Double.NaN}));
+        collector.offer(new FractionScore(2, 0, 0, new double[]{9, 9}));
+        assertEquals(List.of(2L, 1L), starts(collector.toSortedList()));
+
+        // Entre NaN también desempata el inicio
+        assertFalse(collector.admits(Double.NaN, 5));
+        assertTrue(collector.admits(Double.NaN, 0));
+        assertTrue(collector.offer(new FractionScore(3, 0, 0, new double[]{20, 1})));
+        assertEquals(List.of(2L, 3L), starts(collector.toSortedList()));
+    }
+
+    @Test
+    void mergeEqualsSingleCollector() {
+        List<FractionScore> scores = randomScores(300);
+        TopKCollector single = new TopKCollector(8, FractionMetric.MAX_VIF);
+        TopKCollector[] parts = new TopKCollector[3];
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = new TopKCollector(8, FractionMetric.MAX_VIF);
+        }
+        for (int i = 0; i < scores.size(); i++) {
+            single.offer(scores.get(i));
+            parts[i % parts.length].offer(scores.get(i));
+        }
+        TopKCollector merged = parts[0].merge(parts[1]).merge(parts[2]);
+        assertEquals(starts(single.toSortedList()), starts(merged.toSortedList()));
+    }
+
+    @Test
+    void capacityMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> new TopKCollector(0, FractionMetric.GBM));
+    }
+
+    /**
+     * Valores sobre rejillas pequeñas para que haya empates, y algunos VIFs NaN
+     */
+    private List<FractionScore> randomScores(int count) {
+        List<FractionScore> scores = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            double[] vifs = {1 + random.nextInt(8) * 0.25, 1 + random.nextInt(8) * 0.25};
+            if (random.nextInt(15) == 0) {
+                vifs[0] = Double.NaN;
+            }
+            scores.add(new FractionScore(1 + random.nextInt(10_000), random.nextInt(6), random.nextInt(6), vifs));
+        }
+        return scores;
+    }
+
+    private static FractionScore score(long start, double gbm) {
+        return new FractionScore(start, gbm, 0, new double[]{1, 1});
+    }
+
+    private static List<Long> starts(List<FractionScore> scores) {
+        return scores.stream().map(FractionScore::start).collect(Collectors.toList());
+    }
+}
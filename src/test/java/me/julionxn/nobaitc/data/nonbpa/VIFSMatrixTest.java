@@ -0,0 +1,138 @@
+package me.julionxn.nobaitc.data.nonbpa;
+
+import me.julionxn.nobaitc.data.BaselineMatlab;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VIFSMatrixTest {
+
+    private static final double TOLERANCE = 1e-9;
+
+    private final VIFSMatrix calculator = new VIFSMatrix();
+
+    /**
+     * La diagonal por LDLᵀ debe coincidir con diag(inv(corrcoef)) en fracciones reales
+     */
+    @Test
+    void ldltMatchesFullInverseOnFractions() {
+        int[][] designs = {{2, 3, 5}, {3, 4, 5}, {2, 3, 5, 7}, {2, 5, 7, 9}, {3, 4, 5, 7}};
+        int compared = 0;
+        for (int[] design : designs) {
+            EvaluationWorkspace workspace = new EvaluationWorkspace(design.length);
+            long tr = tr(design);
+            for (int fractionSize : new int[]{design.length + 3, 19, (int) tr / 3}) {
+                for (long start = 1; start <= tr; start += Math.max(1, tr / 50)) {
+                    FractionView view = FractionView.of(design, start, fractionSize);
+                    double[][] fraction = view.toMatrix();
+                    double[] expected = BaselineMetrics.vifs(fraction);
+                    if (expected == null) {
+                        continue;
+                    }
+                    String window = "inicio " + start + ", tamaño " + fractionSize;
+                    assertVifs(expected, calculator.calculate(fraction), window);
+                    assertVifs(expected, calculator.calculate(view, workspace), window);
+                    assertVifs(expected, calculator.calculate(LevelMatrix.of(view), workspace), window);
+                    assertVifs(expected, calculator.fromCorrelation(BaselineMatlab.corrcoef(fraction)), window);
+                    compared++;
+                }
+            }
+        }
+        assertTrue(compared > 500, "pocas fracciones comparadas: " + compared);
+    }
+
+    /**
+     * Dos columnas iguales dan un pivote nulo: la factorización la reporta como singular
+     */
+    @Test
+    void rankDeficientCorrelationIsSingular() {
+        double[][] fraction = {
+                {1, 1, 2},
+                {2, 2, 1},
+                {3, 3, 3},
+                {1, 1, 1},
+                {2, 2, 3},
+        };
+        double[][] r2 = BaselineMatlab.corrcoef(fraction);
+        assertNull(BaselineMatlab.inv(r2));
+
+        assertThrows(RuntimeException.class, () -> calculator.calculate(fraction));
+        assertThrows(RuntimeException.class, () -> calculator.fromCorrelation(r2));
+        assertAllNaN(calculator.fromCorrelationOrNaN(r2));
+    }
+
+    /**
+     * Una columna constante deja correlaciones NaN; igual que inv(corrcoef), los VIFs salen NaN
+     */
+    @Test
+    void constantColumnGivesNaNLikeFullInverse() {
+        double[][] fraction = {
+                {1, 2, 1},
+                {2, 2, 3},
+                {3, 2, 2},
+                {1, 2, 3},
+                {2, 2, 1},
+        };
+        double[][] r2 = BaselineMatlab.corrcoef(fraction);
+        assertAllNaN(BaselineMatlab.diag(BaselineMatlab.inv(r2)));
+
+        assertAllNaN(calculator.calculate(fraction));
+        assertAllNaN(calculator.fromCorrelationOrNaN(r2));
+    }
+
+    /**
+     * Una matriz simétrica invertible pero no definida positiva hace fallar LDLᵀ con un pivote negativo;
+     * la diagonal se obtiene entonces de la inversa completa
+     */
+    @Test
+    void notPositiveDefiniteFallsBackToFullInverse() {
+        double[][][] matrices = {
+                {{1, 2}, {2, 1}},
+                {{1, 0.9, 0.9}, {0.9, 1, -0.9}, {0.9, -0.9, 1}},
+                {{1, 0.5, 0.5, 0.5}, {0.5, 1, 0.5, 0.5}, {0.5, 0.5, 1, 3}, {0.5, 0.5, 3, 1}},
+        };
+        for (double[][] r2 : matrices) {
+            double[][] inverse = BaselineMatlab.inv(r2);
+            assertNotNull(inverse);
+            double[] expected = BaselineMatlab.diag(inverse);
+            assertTrue(negativeEntry(expected), "la matriz de prueba debe ser indefinida");
+
+            assertVifs(expected, calculator.fromCorrelation(r2), "fromCorrelation");
+            assertVifs(expected, calculator.fromCorrelationOrNaN(r2), "fromCorrelationOrNaN");
+        }
+    }
+
+    private static void assertVifs(double[] expected, double[] actual, String message) {
+        assertEquals(expected.length, actual.length, message);
+        for (int k = 0; k < expected.length; k++) {
+            assertEquals(expected[k], actual[k], TOLERANCE * Math.max(1, Math.abs(expected[k])), message);
+        }
+    }
+
+    private static void assertAllNaN(double[] vifs) {
+        for (double vif : vifs) {
+            assertTrue(Double.isNaN(vif));
+        }
+    }
+
+    private static boolean negativeEntry(double[] values) {
+        for (double value : values) {
+            if (value < 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long tr(int[] design) {
+        long tr = 1;
+        for (int levels : design) {
+            tr *= levels;
+        }
+        return tr;
+    }
+}
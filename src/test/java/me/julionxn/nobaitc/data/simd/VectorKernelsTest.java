@@ -0,0 +1,160 @@
+package me.julionxn.nobaitc.data.simd;
+
+import me.julionxn.nobaitc.data.BaselineMatlab;
+import me.julionxn.nobaitc.data.Matrix;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Compara la implementación SIMD con la escalar. Necesita la JVM iniciada con
+ * {@code --add-modules jdk.incubator.vector}; Surefire la corre en su propia ejecución con ese argumento.
+ */
+class VectorKernelsTest {
+
+    private static final double TOLERANCE = 1e-12;
+
+    /**
+     * Largos menores, iguales y mayores que el ancho de vector, para pasar por la cola escalar
+     */
+    private static final int[] LENGTHS = {0, 1, 2, 3, 4, 5, 7, 8, 9, 15, 16, 17, 31, 33, 63, 64, 65, 100, 1000, 1027};
+
+    private final Kernels scalar = Kernels.scalar();
+    private final Kernels simd = Kernels.simd()
+            .orElseThrow(() -> new IllegalStateException("Falta --add-modules jdk.incubator.vector"));
+    private final Random random = new Random(16);
+
+    @Test
+    void simdIsActiveWhenModuleIsLoaded() {
+        assertSame(simd, Kernels.active());
+    }
+
+    @Test
+    void reductionsMatchScalar() {
+        for (int length : LENGTHS) {
+            for (int from : new int[]{0, 3}) {
+                double[] x = random(from + length + 2);
+                double[] y = random(length + 5);
+                String message = "largo " + length + ", desde " + from;
+
+                assertClose(scalar.sum(x, from, length), simd.sum(x, from, length), length, message);
+                double mean = scalar.sum(x, from, length) / Math.max(1, length);
+                assertClose(scalar.sumSquaredDeviations(x, from, length, mean),
+                        simd.sumSquaredDeviations(x, from, length, mean), length, message);
+                assertClose(scalar.centeredDot(x, from, y, 5 - from, length, 0.25, -0.5),
+                        simd.centeredDot(x, from, y, 5 - from, length, 0.25, -0.5), length, message);
+            }
+        }
+    }
+
+    @Test
+    void countEqualMatchesScalar() {
+        for (int length : LENGTHS) {
+            double[] a = levels(length + 3);
+            double[] b = levels(length + 1);
+            assertEquals(scalar.countEqual(a, b, length), simd.countEqual(a, b, length), "largo " + length);
+            assertEquals(length, simd.countEqual(a, a.clone(), length), "largo " + length);
+        }
+    }
+
+    @Test
+    void multiplyMatchesScalar() {
+        for (int length : LENGTHS) {
+            double[] a = random(length + 2);
+            double[] b = random(length + 2);
+            double[] expected = new double[length + 2];
+            double[] actual = new double[length + 2];
+            scalar.multiply(a, b, expected, length);
+            simd.multiply(a, b, actual, length);
+            // Sin reducción el orden no cambia: el producto debe ser idéntico, y lo que sigue a length no se toca
+            assertArrayEquals(expected, actual, "largo " + length);
+        }
+    }
+
+    @Test
+    void corrcoefMatchesScalar() {
+        int[][] shapes = {{2, 3}, {7, 4}, {17, 5}, {64, 3}, {101, 9}, {1000, 6}};
+        for (int[] shape : shapes) {
+            double[][] fraction = new double[shape[0]][shape[1]];
+            for (double[] row : fraction) {
+                for (int j = 0; j < row.length; j++) {
+                    row[j] = 1 + random.nextInt(7);
+                }
+            }
+            double[] columns = flattenColumns(fraction);
+            double[][] expected = corrcoef(scalar, columns, shape[0], shape[1]);
+            double[][] actual = corrcoef(simd, columns, shape[0], shape[1]);
+            double[][] baseline = BaselineMatlab.corrcoef(fraction);
+            double[][] viaMatrix = Matrix.of(fraction).corrcoef().toArray();
+            for (int i = 0; i < shape[1]; i++) {
+                String message = shape[0] + "x" + shape[1] + ", fila " + i;
+                assertArrayEquals(expected[i], actual[i], 1e-9, message);
+                assertArrayEquals(baseline[i], viaMatrix[i], 1e-9, message);
+            }
+        }
+    }
+
+    /**
+     * corrcoef con los mismos pasos que Matrix.corrcoef, pero con los kernels dados
+     */
+    private static double[][] corrcoef(Kernels kernels, double[] columns, int rows, int cols) {
+        double[] means = new double[cols];
+        double[] stdDevs = new double[cols];
+        for (int j = 0; j < cols; j++) {
+            means[j] = kernels.sum(columns, j * rows, rows) / rows;
+            stdDevs[j] = Math.sqrt(kernels.sumSquaredDeviations(columns, j * rows, rows, means[j]) / rows);
+        }
+        double[][] corr = new double[cols][cols];
+        for (int i = 0; i < cols; i++) {
+            corr[i][i] = 1.0;
+            for (int j = i + 1; j < cols; j++) {
+                double covariance = kernels.centeredDot(columns, i * rows, columns, j * rows, rows, means[i], means[j]);
+                corr[i][j] = covariance / (rows * stdDevs[i] * stdDevs[j]);
+                corr[j][i] = corr[i][j];
+            }
+        }
+        return corr;
+    }
+
+    private static double[] flattenColumns(double[][] matrix) {
+        int rows = matrix.length;
+        int cols = matrix[0].length;
+        double[] result = new double[rows * cols];
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                result[j * rows + i] = matrix[i][j];
+            }
+        }
+        return result;
+    }
+
+    private double[] random(int length) {
+        double[] result = new double[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = random.nextDouble() * 10 - 5;
+        }
+        return result;
+    }
+
+    /**
+     * Niveles enteros pequeños, para que haya coincidencias que contar
+     */
+    private double[] levels(int length) {
+        double[] result = new double[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = 1 + random.nextInt(3);
+        }
+        return result;
+    }
+
+    /**
+     * Las reducciones SIMD suman en otro orden: se tolera un error relativo al número de términos
+     */
+    private static void assertClose(double expected, double actual, int length, String message) {
+        assertEquals(expected, actual, TOLERANCE * Math.max(1, length) * Math.max(1, Math.abs(expected)), message);
+    }
+}